@@ -158,3 +158,13 @@ create table tb_express_form
     deleted                   tinyint(1) default 0 not null comment '逻辑删除（0：未删除；1：已删除）'
 ) comment '快递单信息';
 
+
+drop table if exists ts_id_segment;
+create table ts_id_segment
+(
+    biz_tag     varchar(128) not null comment '业务标识'
+        primary key,
+    max_id      bigint(20)   not null comment '已分配的最大id',
+    step        int          not null comment '号段步长',
+    update_time datetime     not null comment '更新时间'
+) comment '号段id分配表';
@@ -12,11 +12,13 @@ import com.refout.trace.common.system.service.UserService;
 import com.refout.trace.common.util.Assert;
 import com.refout.trace.common.util.RandomUtil;
 import com.refout.trace.common.util.StrUtil;
+import com.refout.trace.common.web.cache.AuthenticatedNearCache;
 import com.refout.trace.common.web.config.CommonConfig;
 import com.refout.trace.common.web.constant.AuthCacheKey;
 import com.refout.trace.common.web.context.AuthenticatedContextHolder;
 import com.refout.trace.common.web.domain.Authenticated;
 import com.refout.trace.common.web.exception.AuthenticationException;
+import com.refout.trace.common.web.stateless.StatelessAuthenticator;
 import com.refout.trace.common.web.util.ServletUtil;
 import com.refout.trace.common.web.util.jwt.JwtUtil;
 import com.refout.trace.redis.handler.RedisRetry;
@@ -29,6 +31,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
@@ -67,6 +71,18 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Resource
     private RedisTemplate<String, Authenticated> redisTemplateAuthenticated;
 
+    /**
+     * 登录信息的本地近缓存
+     */
+    @Resource
+    private AuthenticatedNearCache authenticatedNearCache;
+
+    /**
+     * 无状态认证
+     */
+    @Resource
+    private StatelessAuthenticator statelessAuthenticator;
+
     /**
      * 用户服务
      */
@@ -216,12 +232,15 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         List<String> permissions = apiService.getPermissionByUserId(id);
         // 生成一个随机的token ID
         String tokenId = RandomUtil.randomUUID();
-        // 根据token ID生成JWT token字符串
-        String token = JwtUtil.createToken(tokenId);
         // 获取当前时间
         LocalDateTime now = LocalDateTime.now();
         // 计算token的过期时间
         LocalDateTime expirationTime = now.plusSeconds(CommonConfig.TOKEN_EXPIRATION_SECOND.value());
+        // 根据token ID生成JWT token字符串，无状态认证时携带用户、角色、权限版本和过期时间
+        Date expiration = Date.from(expirationTime.atZone(ZoneId.systemDefault()).toInstant());
+        String token = statelessAuthenticator.enabled()
+                ? JwtUtil.createToken(statelessAuthenticator.claims(user, userService.getRoleIds(id)), tokenId, expiration)
+                : JwtUtil.createToken(tokenId);
         // 获取用户的UserAgent信息
         String userAgent = ServletUtil.getUserAgent();
         UserAgent agent = UserAgent.parseUserAgentString(userAgent);
@@ -250,7 +269,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         String userKey = AuthCacheKey.userKeyFromToken(context.getToken());
         Assert.hasText(AuthenticationException::new, userKey, "已注销");
 
+        // 无状态token在过期前仍能通过签名验证，需要撤销
+        statelessAuthenticator.revoke(JwtUtil.parseToken(context.getToken()));
         Boolean delete = redisTemplateAuthenticated.delete(userKey);
+        authenticatedNearCache.invalidate(userKey);
         Assert.isTrue(AuthenticationException::new, Boolean.TRUE.equals(delete), "注销失败");
     }
 
@@ -1,5 +1,6 @@
 package com.refout.trace.common.system.config;
 
+import com.refout.trace.common.system.domain.Config;
 import com.refout.trace.common.system.service.ConfigService;
 import com.refout.trace.common.util.ReflectionUtil;
 import jakarta.annotation.PostConstruct;
@@ -9,9 +10,11 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Component
@@ -33,6 +36,7 @@ public class ConfigCheck {
                 )
                 .toList();
 
+        List<Config> configs = new ArrayList<>();
         for (Field field : fields) {
             try {
                 Property<?> value = (Property<?>) ReflectionUtil.getField(field, this);
@@ -42,15 +46,25 @@ public class ConfigCheck {
                 if (!value.belongThis()) {
                     continue;
                 }
-                if (service.exist(value.key())) {
-                    continue;
-                }
-                log.error("缺少系统配置：{}，保存默认配置：{}", value.key(), value.def());
-                service.save(value.to());
+                configs.add(value.to());
             } catch (Exception e) {
                 log.error("系统配置检查失败，获取配置声明字段失败", e);
             }
         }
+        if (configs.isEmpty()) {
+            return;
+        }
+        Set<String> existing = service.exist(configs.stream().map(Config::getName).toList());
+        List<Config> missing = configs.stream()
+                .filter(config -> !existing.contains(config.getName()))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.forEach(config ->
+                log.error("缺少系统配置：{}，保存默认配置：{}", config.getName(), config.getValue()));
+        // 一条语句写入缺少的默认配置，其他节点同时写入的配置保持不变
+        service.upsertAll(missing, List.of("name", "app"), List.of());
     }
 
 }
@@ -3,6 +3,7 @@ package com.refout.trace.common.system.domain;
 import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.datasource.convert.enums.StateEnumConverter;
 import com.refout.trace.datasource.domain.AbstractEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
@@ -10,6 +11,9 @@ import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * API实体类
@@ -24,6 +28,9 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @Table(name = "ts_api")
 @Entity
+@SQLRestriction("deleted = 0")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Api extends AbstractEntity {
 
 	/**
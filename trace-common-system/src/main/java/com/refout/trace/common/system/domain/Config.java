@@ -2,6 +2,7 @@ package com.refout.trace.common.system.domain;
 
 import com.refout.trace.common.system.repository.convert.HistoryValueConverter;
 import com.refout.trace.datasource.domain.AbstractEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
@@ -9,11 +10,15 @@ import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 /**
  * 配置信息
+ * <p>
+ * 名称和应用上有唯一键，删除后需要能以同样的名称重新创建，因此不过滤已删除数据，删除时物理删除。
  *
  * @author oo w
  * @version 1.0
@@ -24,6 +29,8 @@ import java.time.LocalDateTime;
 @Accessors(chain = true)
 @Table(name = "ts_config")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Config extends AbstractEntity {
 
 	/**
@@ -11,12 +11,14 @@ import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.SQLRestriction;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
 @Accessors(chain = true)
 @Table(name = "ts_user")
 @Entity
+@SQLRestriction("deleted = 0")
 public class User extends AbstractEntity {
 
     /**
@@ -28,6 +28,7 @@ public interface ApiRepository extends BaseRepository<Api, Long> {
 			select distinct permission
 			from ts_menu m
 			         left join ts_role_menu rm on m.id = rm.menu_id
+			         join ts_role r on r.id = rm.role_id and r.deleted = 0
 			where m.state = '0'
 			  and m.deleted = 0
 			  and m.permission is not null
@@ -47,6 +48,7 @@ public interface ApiRepository extends BaseRepository<Api, Long> {
 						from ts_menu m
 						         left join ts_role_menu rm on m.id = rm.menu_id
 						         left join ts_user_role ur on ur.role_id = rm.role_id
+						         join ts_role r on r.id = rm.role_id and r.deleted = 0
 						where m.state = '0'
 						  and m.deleted = 0
 						  and m.permission is not null
@@ -56,4 +58,21 @@ public interface ApiRepository extends BaseRepository<Api, Long> {
 			""", nativeQuery = true)
 	List<String> findPermissionsByUserId(@Param("userId") long userId);
 
+	/**
+	 * 查询所有角色的权限，用于无状态认证的角色权限表。
+	 *
+	 * @return 每行为[角色ID, 权限]
+	 */
+	@Query(value = """
+			select distinct rm.role_id, m.permission
+			from ts_menu m
+			         join ts_role_menu rm on m.id = rm.menu_id
+			         join ts_role r on r.id = rm.role_id and r.deleted = 0
+			where m.state = '0'
+			  and m.deleted = 0
+			  and m.permission is not null
+			  and m.permission != ''
+			         """, nativeQuery = true)
+	List<Object[]> findRolePermissions();
+
 }
@@ -5,6 +5,9 @@ import com.refout.trace.datasource.repository.BaseRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 配置信息仓库接口，用于访问Config表。
  *
@@ -28,6 +31,7 @@ public interface ConfigRepository extends BaseRepository<Config, Long> {
             from ts_config
             where name = ?1
               and (app = ?2 or app = 'common')
+              and deleted = 0
             order by field(app, 'common')
             limit 1
             """, nativeQuery = true)
@@ -45,7 +49,24 @@ public interface ConfigRepository extends BaseRepository<Config, Long> {
                         from ts_config
                         where name = ?1
                           and (app = ?2 or app = 'common')
+                          and deleted = 0
             """, nativeQuery = true)
     int exist(String name, String app);
 
+    /**
+     * 根据名称列表和应用程序查询Config表中已存在的配置名称。
+     *
+     * @param names 配置名称列表
+     * @param app   应用程序
+     * @return 已存在的配置名称
+     */
+    @Query(value = """
+            select distinct name
+            from ts_config
+            where name in (?1)
+              and (app = ?2 or app = 'common')
+              and deleted = 0
+            """, nativeQuery = true)
+    List<String> findExistingNames(Collection<String> names, String app);
+
 }
\ No newline at end of file
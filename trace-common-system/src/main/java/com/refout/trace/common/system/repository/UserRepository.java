@@ -1,9 +1,14 @@
 package com.refout.trace.common.system.repository;
 
+import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.common.system.domain.User;
 import com.refout.trace.datasource.repository.BaseRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 提供创建、更新、查询和删除用户的功能
  *
@@ -46,4 +51,28 @@ public interface UserRepository extends BaseRepository<User, Long> {
 	 */
 	int countByUsername(String username);
 
+	/**
+	 * 根据用户ID查询用户的角色ID列表。
+	 *
+	 * @param userId 用户ID
+	 * @return 角色ID列表
+	 */
+	@Query(value = """
+			select ur.role_id
+			from ts_user_role ur
+			         join ts_role r on r.id = ur.role_id and r.deleted = 0
+			where ur.user_id = :userId
+			order by ur.role_id
+			""", nativeQuery = true)
+	List<Long> findRoleIdsByUserId(@Param("userId") long userId);
+
+	/**
+	 * 根据用户ID查询用户当前状态。
+	 *
+	 * @param id 用户ID
+	 * @return 用户状态，用户不存在时为 null
+	 */
+	@Query("select u.state from User u where u.id = :id")
+	StateEnum findStateById(@Param("id") Long id);
+
 }
@@ -4,6 +4,8 @@ import com.refout.trace.common.system.domain.Api;
 import com.refout.trace.datasource.service.CrudService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 接口服务类
@@ -22,4 +24,11 @@ public interface ApiService extends CrudService<Api, Long> {
      */
     List<String> getPermissionByUserId(final long userId);
 
+    /**
+     * 查询所有角色的接口权限
+     *
+     * @return 角色id到接口权限的Map
+     */
+    Map<Long, Set<String>> getRolePermissions();
+
 }
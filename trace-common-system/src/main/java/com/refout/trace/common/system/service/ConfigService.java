@@ -3,6 +3,9 @@ package com.refout.trace.common.system.service;
 import com.refout.trace.common.system.domain.Config;
 import com.refout.trace.datasource.service.CrudService;
 
+import java.util.Collection;
+import java.util.Set;
+
 /**
  * 配置服务接口，用于获取配置信息。
  *
@@ -59,4 +62,12 @@ public interface ConfigService extends CrudService<Config, Long> {
      */
     boolean exist(String name);
 
+    /**
+     * 查询已存在的配置
+     *
+     * @param names 配置名称列表
+     * @return 已存在的配置名称
+     */
+    Set<String> exist(Collection<String> names);
+
 }
@@ -1,8 +1,11 @@
 package com.refout.trace.common.system.service;
 
+import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.common.system.domain.User;
 import com.refout.trace.datasource.service.CrudService;
 
+import java.util.List;
+
 /**
  * UserService 接口提供与用户领域交互的方法。
  *
@@ -45,4 +48,20 @@ public interface UserService extends CrudService<User, Long> {
      */
     boolean existWithUsername(String username);
 
+    /**
+     * 根据用户ID获取用户的角色ID列表。
+     *
+     * @param userId 用户ID
+     * @return 角色ID列表
+     */
+    List<Long> getRoleIds(long userId);
+
+    /**
+     * 根据用户ID获取库中保存的用户状态。
+     *
+     * @param id 用户ID
+     * @return 用户状态，用户不存在时为 null
+     */
+    StateEnum getState(Long id);
+
 }
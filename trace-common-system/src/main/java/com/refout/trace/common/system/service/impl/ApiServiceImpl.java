@@ -7,7 +7,11 @@ import com.refout.trace.datasource.repository.BaseRepository;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * 接口服务类
@@ -33,6 +37,21 @@ public class ApiServiceImpl implements ApiService {
         return apiRepository.findPermissionsByUserId(userId);
     }
 
+    /**
+     * 查询所有角色的接口权限
+     *
+     * @return 角色id到接口权限的Map
+     */
+    @Override
+    public Map<Long, Set<String>> getRolePermissions() {
+        Map<Long, Set<String>> rolePermissions = new HashMap<>();
+        for (Object[] row : apiRepository.findRolePermissions()) {
+            long roleId = ((Number) row[0]).longValue();
+            rolePermissions.computeIfAbsent(roleId, k -> new TreeSet<>()).add((String) row[1]);
+        }
+        return rolePermissions;
+    }
+
     /**
      * 获取对应实体类的Repository
      *
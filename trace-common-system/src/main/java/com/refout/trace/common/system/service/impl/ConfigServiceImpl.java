@@ -7,11 +7,24 @@ import com.refout.trace.common.util.ConvertUtil;
 import com.refout.trace.common.util.StrUtil;
 import com.refout.trace.datasource.repository.BaseRepository;
 import com.refout.trace.redis.config.key.ConfigCacheKey;
+import com.refout.trace.redis.constant.CacheKeyRule;
 import jakarta.annotation.Resource;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * 配置服务实现，用于获取配置信息。
@@ -23,6 +36,16 @@ import org.springframework.stereotype.Service;
 @Service
 public class ConfigServiceImpl implements ConfigService {
 
+    /**
+     * 配置名称字段
+     */
+    private static final String NAME = "name";
+
+    /**
+     * 配置所属应用字段
+     */
+    private static final String APP = "app";
+
     /**
      * 应用名称
      */
@@ -35,6 +58,12 @@ public class ConfigServiceImpl implements ConfigService {
     @Resource
     private ConfigRepository configRepository;
 
+    /**
+     * 缓存管理器
+     */
+    @Resource
+    private CacheManager cacheManager;
+
     @Override
     public BaseRepository<Config, Long> repository() {
         return configRepository;
@@ -117,6 +146,59 @@ public class ConfigServiceImpl implements ConfigService {
         return ConvertUtil.convert(value, def, clazz);
     }
 
+    /**
+     * 根据ID列表批量删除配置，并清除这些配置的缓存
+     *
+     * @param ids 配置的ID列表
+     */
+    @Transactional
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        List<Config> configs = configRepository.findAllById(ids);
+        ConfigService.super.deleteAllById(ids);
+        evict(configs);
+    }
+
+    /**
+     * 根据ID修改配置的部分字段，并清除修改前后的配置缓存
+     *
+     * @param id     配置的ID
+     * @param fields 字段名到新值的Map
+     */
+    @Transactional
+    @Override
+    public void patch(Long id, Map<String, Object> fields) {
+        Optional<Config> before = configRepository.findById(id);
+        ConfigService.super.patch(id, fields);
+        List<Config> configs = new ArrayList<>();
+        before.ifPresent(config -> {
+            configs.add(config);
+            if (fields.containsKey(NAME) || fields.containsKey(APP)) {
+                configs.add(new Config()
+                        .setName(String.valueOf(fields.getOrDefault(NAME, config.getName())))
+                        .setApp(String.valueOf(fields.getOrDefault(APP, config.getApp()))));
+            }
+        });
+        evict(configs);
+    }
+
+    /**
+     * 批量插入或更新配置，并清除这些配置的缓存
+     *
+     * @param configs        配置列表
+     * @param conflictFields 冲突字段
+     * @param updateFields   冲突时更新的字段
+     * @return 影响的行数
+     */
+    @Transactional
+    @Override
+    public int upsertAll(List<Config> configs, Collection<String> conflictFields,
+                         @Nullable Collection<String> updateFields) {
+        int affected = ConfigService.super.upsertAll(configs, conflictFields, updateFields);
+        evict(configs);
+        return affected;
+    }
+
     /**
      * 配置是否存在
      *
@@ -128,4 +210,34 @@ public class ConfigServiceImpl implements ConfigService {
         return configRepository.exist(name, applicationName) > 0;
     }
 
+    /**
+     * 查询已存在的配置
+     *
+     * @param names 配置名称列表
+     * @return 已存在的配置名称
+     */
+    @Override
+    public Set<String> exist(Collection<String> names) {
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(configRepository.findExistingNames(names, applicationName));
+    }
+
+    /**
+     * 清除配置的缓存
+     *
+     * @param configs 配置列表
+     */
+    private void evict(Collection<Config> configs) {
+        Cache cache = cacheManager.getCache(ConfigCacheKey.PREFIX);
+        if (cache == null) {
+            return;
+        }
+        for (Config config : configs) {
+            cache.evict(CacheKeyRule.key(applicationName, config.getName()));
+            cache.evict(CacheKeyRule.key(config.getApp(), config.getName()));
+        }
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.refout.trace.common.system.service.impl;
 
+import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.common.system.domain.User;
 import com.refout.trace.common.system.repository.UserRepository;
 import com.refout.trace.common.system.service.UserService;
@@ -7,6 +8,8 @@ import com.refout.trace.datasource.repository.BaseRepository;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class UserServiceImpl implements UserService {
 
@@ -67,4 +70,26 @@ public class UserServiceImpl implements UserService {
         return userRepository.countByUsername(username) > 0;
     }
 
+    /**
+     * 根据用户ID获取用户的角色ID列表。
+     *
+     * @param userId 用户ID
+     * @return 角色ID列表
+     */
+    @Override
+    public List<Long> getRoleIds(long userId) {
+        return userRepository.findRoleIdsByUserId(userId);
+    }
+
+    /**
+     * 根据用户ID获取库中保存的用户状态。
+     *
+     * @param id 用户ID
+     * @return 用户状态，用户不存在时为 null
+     */
+    @Override
+    public StateEnum getState(Long id) {
+        return userRepository.findStateById(id);
+    }
+
 }
@@ -0,0 +1,136 @@
+package com.refout.trace.common.system.domain;
+
+import com.refout.trace.common.enums.StateEnum;
+import com.refout.trace.datasource.annotation.Deleted;
+import com.refout.trace.datasource.annotation.Query;
+import com.refout.trace.datasource.domain.query.QueryPlan;
+import com.refout.trace.datasource.enums.QueryFunc;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Transient;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页查询谓词构建的JMH基准测试，对比每次反射遍历字段与编译后的查询计划。
+ * <p>
+ * CriteriaBuilder和Root使用动态代理桩实现，只统计字段遍历、注解读取和转换器实例化的开销。
+ * <p>
+ * 运行方式：在IDE中直接运行main方法，或
+ * {@code mvn -pl trace-common-system test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.refout.trace.common.system.domain.QueryPlanBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryPlanBenchmark {
+
+    private static final Predicate PREDICATE = stub(Predicate.class, null);
+
+    private static final Path<?> PATH = stub(Path.class, null);
+
+    private static final CriteriaBuilder CRITERIA_BUILDER = stub(CriteriaBuilder.class, PREDICATE);
+
+    private static final Root<?> ROOT = stub(Root.class, PATH);
+
+    @Param({"User", "Config"})
+    private String entity;
+
+    private Object data;
+
+    @Setup
+    public void setUp() {
+        data = switch (entity) {
+            case "User" -> new User()
+                    .setUsername("admin")
+                    .setNickname("管理员")
+                    .setPhone("18000000000")
+                    .setState(StateEnum.NORMAL);
+            case "Config" -> new Config()
+                    .setName("token.expiration")
+                    .setApp("common")
+                    .setHistoryValue(new Config.HistoryValue("1800", LocalDateTime.now()));
+            default -> throw new IllegalArgumentException(entity);
+        };
+    }
+
+    @Benchmark
+    public void reflection(Blackhole blackhole) {
+        List<Predicate> predicates = new ArrayList<>();
+        legacyPredicates(data, predicates);
+        blackhole.consume(predicates);
+    }
+
+    @Benchmark
+    public void plan(Blackhole blackhole) {
+        List<Predicate> predicates = new ArrayList<>();
+        QueryPlan.of(data.getClass()).predicates(data, ROOT, CRITERIA_BUILDER, predicates);
+        blackhole.consume(predicates);
+    }
+
+    /**
+     * 编译查询计划之前CrudService#getPage中的实现
+     */
+    private static void legacyPredicates(Object data, List<Predicate> predicates) {
+        ReflectionUtils.doWithFields(data.getClass(), field -> {
+            field.setAccessible(true);
+            Object value = field.get(data);
+            if (value == null) {
+                return;
+            }
+            if (field.getDeclaredAnnotation(Transient.class) != null) {
+                return;
+            }
+            if (field.getDeclaredAnnotation(Deleted.class) != null) {
+                field.setBoolean(data, false);
+            }
+            Convert convert = field.getDeclaredAnnotation(Convert.class);
+            if (convert != null) {
+                try {
+                    @SuppressWarnings("unchecked")
+                    Class<? extends AttributeConverter<Object, Object>> converter = convert.converter();
+                    value = converter.getDeclaredConstructor().newInstance().convertToDatabaseColumn(value);
+                } catch (Exception ignore) {
+                }
+            }
+            Query query = field.getDeclaredAnnotation(Query.class);
+            QueryFunc func = query == null ? QueryFunc.LIKE : query.value();
+            ROOT.get(field.getName());
+            predicates.add(func == QueryFunc.EQ ? CRITERIA_BUILDER.equal(PATH, value) :
+                    CRITERIA_BUILDER.like(PATH.as(String.class), "%" + value + "%"));
+        }, field -> !Modifier.isStatic(field.getModifiers()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> S stub(Class<?> type, Object result) {
+        return (S) Proxy.newProxyInstance(QueryPlanBenchmark.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> method.getReturnType().isPrimitive() ? null : result);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QueryPlanBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
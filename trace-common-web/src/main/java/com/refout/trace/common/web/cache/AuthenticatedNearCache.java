@@ -0,0 +1,299 @@
+package com.refout.trace.common.web.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.util.StrUtil;
+import com.refout.trace.common.web.constant.AuthCacheKey;
+import com.refout.trace.common.web.domain.Authenticated;
+import com.refout.trace.redis.constant.CacheKeyRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 登录信息的本地近缓存
+ *
+ * <p>
+ * 以用户缓存键（由token ID得到，见{@link AuthCacheKey#userKey(String)}）缓存{@link Authenticated}，
+ * 命中时不访问redis，未命中时由调用方从redis加载，加载结果为空时不缓存。<br/>
+ * 缓存条数不超过{@code trace.security.near-cache.maximum-size}，写入{@code ttl-seconds}秒后过期，
+ * 过期时间即本地数据的最大陈旧时间。<br/>
+ * 登出、登录信息改写时调用{@link #invalidate(String)}，用户状态变更、删除时调用{@link #invalidateUsers(Collection)}，
+ * 角色权限变更时调用{@link #invalidateAll()}，通过redis频道{@code AUTH:NEAR_CACHE:EVICT}通知所有节点；
+ * redis开启了键空间通知（{@code notify-keyspace-events}包含{@code K}与{@code g$x}）时，
+ * 用户缓存键被删除、改写或过期也会使近缓存失效（只刷新过期时间的{@code expire}事件忽略）。<br/>
+ * 导出命中率（{@code cache.gets}，{@code cache=auth.near}）、命中数据的存在时长（{@code trace.auth.near-cache.age}）
+ * 和收到的失效通知次数（{@code trace.auth.near-cache.invalidations}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 21:40
+ */
+@Slf4j
+@Component
+public class AuthenticatedNearCache implements MessageListener, MeterBinder {
+
+    /**
+     * 失效通知频道
+     */
+    public static final String CHANNEL = CacheKeyRule.key("AUTH", "NEAR_CACHE", "EVICT");
+
+    /**
+     * 失效全部缓存的通知内容
+     */
+    public static final String ALL = "*";
+
+    /**
+     * 按用户ID失效的通知内容前缀，后接以逗号分隔的用户ID
+     */
+    public static final String USER_PREFIX = "user:";
+
+    /**
+     * 指标名称前缀
+     */
+    private static final String PREFIX = "trace.auth.near-cache";
+
+    /**
+     * 键空间通知频道的前缀，频道为{@code __keyspace@<db>__:<key>}
+     */
+    private static final String KEYSPACE_PREFIX = "__keyspace@";
+
+    /**
+     * 设置过期时间的键空间事件
+     */
+    private static final String EXPIRE_EVENT = "expire";
+
+    /**
+     * 是否开启近缓存
+     */
+    @Value("${trace.security.near-cache.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 最大缓存条数
+     */
+    @Value("${trace.security.near-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 写入后的过期时间（秒）
+     */
+    @Value("${trace.security.near-cache.ttl-seconds:5}")
+    private long ttlSeconds;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 本地缓存
+     */
+    private Cache<String, Entry> cache;
+
+    /**
+     * 命中数据的存在时长，即本地数据可能陈旧的时长
+     */
+    private Timer age;
+
+    /**
+     * 收到的失效通知次数
+     */
+    private Counter invalidations;
+
+    /**
+     * 创建本地缓存并订阅失效通知
+     */
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        if (enabled && redisMessageListenerContainer != null) {
+            redisMessageListenerContainer.addMessageListener(this, List.of(
+                    new ChannelTopic(CHANNEL),
+                    new PatternTopic(KEYSPACE_PREFIX + "*__:" + AuthCacheKey.userKey(ALL))
+            ));
+        }
+    }
+
+    /**
+     * 获取登录信息，未命中时加载并缓存
+     *
+     * @param userKey 用户缓存键
+     * @param loader  从redis加载登录信息，登录已过期时返回null
+     * @return 登录信息，登录已过期时返回null
+     */
+    public @Nullable Authenticated get(@NotNull String userKey, @NotNull Supplier<Authenticated> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        boolean[] loaded = {false};
+        Entry entry = cache.get(userKey, key -> {
+            loaded[0] = true;
+            Authenticated authenticated = loader.get();
+            return authenticated == null ? null : new Entry(authenticated, System.nanoTime());
+        });
+        if (entry == null) {
+            return null;
+        }
+        if (!loaded[0] && age != null) {
+            age.record(System.nanoTime() - entry.loadedAt(), TimeUnit.NANOSECONDS);
+        }
+        return entry.authenticated();
+    }
+
+    /**
+     * 使所有节点上指定用户缓存键的近缓存失效
+     *
+     * @param userKey 用户缓存键
+     */
+    public void invalidate(@NotNull String userKey) {
+        cache.invalidate(userKey);
+        publish(userKey);
+    }
+
+    /**
+     * 使所有节点上指定用户全部登录的近缓存失效
+     * <p>
+     * 近缓存以token ID为键，没有用户到token的索引，各节点遍历本地缓存失效这些用户的登录信息
+     *
+     * @param userIds 用户ID
+     */
+    public void invalidateUsers(@NotNull Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        invalidateLocalUsers(Set.copyOf(userIds));
+        publish(USER_PREFIX + userIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * 使所有节点上的近缓存全部失效，用于权限变更等影响多个登录的修改
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        publish(ALL);
+    }
+
+    /**
+     * 收到失效通知或键空间通知时使本地缓存失效
+     *
+     * @param message 通知
+     * @param pattern 订阅的模式
+     */
+    @Override
+    public void onMessage(@NotNull Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String userKey;
+        if (CHANNEL.equals(channel)) {
+            userKey = new String(message.getBody(), StandardCharsets.UTF_8);
+        } else if (channel.startsWith(KEYSPACE_PREFIX) && channel.contains("__:")) {
+            if (EXPIRE_EVENT.equals(new String(message.getBody(), StandardCharsets.UTF_8))) {
+                // 只是刷新过期时间，登录信息未变
+                return;
+            }
+            userKey = channel.substring(channel.indexOf("__:") + 3);
+        } else {
+            return;
+        }
+        if (invalidations != null) {
+            invalidations.increment();
+        }
+        if (ALL.equals(userKey)) {
+            cache.invalidateAll();
+        } else if (userKey.startsWith(USER_PREFIX)) {
+            invalidateLocalUsers(Arrays.stream(userKey.substring(USER_PREFIX.length()).split(","))
+                    .filter(StrUtil::hasText)
+                    .map(Long::valueOf)
+                    .collect(Collectors.toSet()));
+        } else {
+            cache.invalidate(userKey);
+        }
+    }
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "auth.near");
+        age = Timer.builder(PREFIX + ".age")
+                .description("近缓存命中的登录信息自加载以来的时长，即可能陈旧的时长")
+                .register(registry);
+        invalidations = Counter.builder(PREFIX + ".invalidations")
+                .description("收到的近缓存失效通知次数")
+                .register(registry);
+    }
+
+    /**
+     * 失效本地缓存中这些用户的登录信息
+     *
+     * @param userIds 用户ID
+     */
+    private void invalidateLocalUsers(Set<Long> userIds) {
+        cache.asMap().values().removeIf(entry -> {
+            User user = entry.authenticated().getUser();
+            return user != null && userIds.contains(user.getId());
+        });
+    }
+
+    /**
+     * 发布失效通知，发布失败只记录日志，由缓存过期兜底
+     *
+     * @param userKey 用户缓存键，为{@link #ALL}时失效全部，以{@link #USER_PREFIX}开头时失效这些用户
+     */
+    private void publish(String userKey) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, userKey);
+        } catch (Exception e) {
+            log.error("登录信息近缓存失效通知发布失败：{}", userKey, e);
+        }
+    }
+
+    /**
+     * 缓存的登录信息
+     *
+     * @param authenticated 登录信息
+     * @param loadedAt      加载时间（{@link System#nanoTime()}）
+     */
+    private record Entry(Authenticated authenticated, long loadedAt) {
+
+    }
+
+}
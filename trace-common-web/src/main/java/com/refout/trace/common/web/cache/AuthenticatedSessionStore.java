@@ -0,0 +1,121 @@
+package com.refout.trace.common.web.cache;
+
+import com.refout.trace.common.web.domain.Authenticated;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * redis中的登录信息
+ *
+ * <p>
+ * 读取登录信息并刷新过期时间在redis中一次完成，原子执行且只有一次往返：<br/>
+ * 优先使用{@code GETEX key EX seconds}（redis 6.2+）；服务端不支持时改用Lua脚本{@link #GET_AND_EXPIRE}，
+ * 脚本以{@code EVALSHA}执行，SHA1只计算一次，服务端脚本缓存中没有时自动以{@code EVAL}重新加载。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 22:05
+ */
+@Slf4j
+@Component
+public class AuthenticatedSessionStore {
+
+    /**
+     * 读取并刷新过期时间的脚本，键不存在时返回nil且不设置过期时间
+     */
+    public static final RedisScript<Authenticated> GET_AND_EXPIRE = new DefaultRedisScript<>("""
+            local value = redis.call('GET', KEYS[1])
+            if value then
+                redis.call('EXPIRE', KEYS[1], ARGV[1])
+            end
+            return value
+            """, Authenticated.class);
+
+    /**
+     * Authenticated类型的Redis模板
+     */
+    private final RedisTemplate<String, Authenticated> redisTemplateAuthenticated;
+
+    /**
+     * 服务端是否支持GETEX，不支持时改用脚本
+     */
+    private volatile boolean getexSupported = true;
+
+    public AuthenticatedSessionStore(RedisTemplate<String, Authenticated> redisTemplateAuthenticated) {
+        this.redisTemplateAuthenticated = redisTemplateAuthenticated;
+    }
+
+    /**
+     * 只读取登录信息，不刷新过期时间
+     *
+     * @param userKey 用户缓存键
+     * @return 登录信息，登录已过期时返回null
+     */
+    public @Nullable Authenticated get(@NotNull String userKey) {
+        return redisTemplateAuthenticated.opsForValue().get(userKey);
+    }
+
+    /**
+     * 读取登录信息并刷新过期时间
+     *
+     * @param userKey 用户缓存键
+     * @param ttl     新的过期时间
+     * @return 登录信息，登录已过期时返回null
+     */
+    public @Nullable Authenticated getAndExpire(@NotNull String userKey, @NotNull Duration ttl) {
+        if (getexSupported) {
+            try {
+                return redisTemplateAuthenticated.opsForValue().getAndExpire(userKey, ttl);
+            } catch (DataAccessException e) {
+                if (!unknownCommand(e)) {
+                    throw e;
+                }
+                getexSupported = false;
+                log.warn("redis不支持GETEX，改用脚本读取登录信息并刷新过期时间");
+            }
+        }
+        return getAndExpireByScript(userKey, ttl);
+    }
+
+    /**
+     * 以脚本读取登录信息并刷新过期时间
+     *
+     * @param userKey 用户缓存键
+     * @param ttl     新的过期时间
+     * @return 登录信息，登录已过期时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable Authenticated getAndExpireByScript(@NotNull String userKey, @NotNull Duration ttl) {
+        return redisTemplateAuthenticated.execute(GET_AND_EXPIRE, RedisSerializer.string(),
+                (RedisSerializer<Authenticated>) redisTemplateAuthenticated.getValueSerializer(),
+                List.of(userKey), String.valueOf(ttl.toSeconds()));
+    }
+
+    /**
+     * 是否为服务端不支持命令的错误
+     *
+     * @param e 异常
+     * @return 不支持命令时返回true
+     */
+    static boolean unknownCommand(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase().contains("unknown command")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
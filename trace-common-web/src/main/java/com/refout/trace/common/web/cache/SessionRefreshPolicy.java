@@ -0,0 +1,166 @@
+package com.refout.trace.common.web.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录过期时间的刷新策略
+ *
+ * <p>
+ * 滑动过期不需要每次请求都写redis：本节点记录每个用户缓存键最近一次刷新后的过期时间，
+ * 剩余时间超过有效期的{@code trace.security.session.refresh-threshold}（0~1）时只读取登录信息，
+ * 不超过该比例时才读取并刷新过期时间。<br/>
+ * 记录只在本节点有效，其他节点刷新后本节点记录的过期时间只会偏早，不会让登录提前过期；
+ * 比例为1时每次都刷新。<br/>
+ * 导出刷新次数和省去的写入次数（{@code trace.auth.session.refresh}，{@code result=written/skipped}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 22:30
+ */
+@Component
+public class SessionRefreshPolicy implements MeterBinder {
+
+    /**
+     * 指标名称
+     */
+    private static final String METRIC = "trace.auth.session.refresh";
+
+    /**
+     * 时钟
+     */
+    private final Ticker ticker;
+
+    /**
+     * 剩余时间不超过有效期的该比例时刷新
+     */
+    @Value("${trace.security.session.refresh-threshold:0.5}")
+    private double refreshThreshold;
+
+    /**
+     * 最多记录的用户缓存键数量
+     */
+    @Value("${trace.security.session.maximum-size:100000}")
+    private long maximumSize;
+
+    /**
+     * 用户缓存键到过期时间（{@link Ticker#read()}）的记录，过期后自动移除
+     */
+    private Cache<String, Long> deadlines;
+
+    /**
+     * 刷新次数
+     */
+    private Counter written;
+
+    /**
+     * 省去的刷新次数
+     */
+    private Counter skipped;
+
+    public SessionRefreshPolicy() {
+        this(Ticker.systemTicker());
+    }
+
+    SessionRefreshPolicy(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * 创建过期时间记录
+     */
+    @PostConstruct
+    public void init() {
+        deadlines = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(@NotNull String key, @NotNull Long deadline, long currentTime) {
+                        return Math.max(0, deadline - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NotNull String key, @NotNull Long deadline, long currentTime,
+                                                  long currentDuration) {
+                        return Math.max(0, deadline - currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NotNull String key, @NotNull Long deadline, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 本次请求是否需要刷新过期时间，不需要时计入省去的写入次数
+     *
+     * @param userKey    用户缓存键
+     * @param ttlSeconds 有效期（秒）
+     * @return 需要刷新时返回true
+     */
+    public boolean shouldRefresh(@NotNull String userKey, long ttlSeconds) {
+        Long deadline = deadlines.getIfPresent(userKey);
+        boolean refresh = deadline == null
+                || deadline - ticker.read() <= TimeUnit.SECONDS.toNanos(ttlSeconds) * refreshThreshold;
+        if (!refresh && skipped != null) {
+            skipped.increment();
+        }
+        return refresh;
+    }
+
+    /**
+     * 记录已刷新过期时间
+     *
+     * @param userKey    用户缓存键
+     * @param ttlSeconds 有效期（秒）
+     */
+    public void refreshed(@NotNull String userKey, long ttlSeconds) {
+        deadlines.put(userKey, ticker.read() + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        if (written != null) {
+            written.increment();
+        }
+    }
+
+    /**
+     * 登录已失效时移除记录
+     *
+     * @param userKey 用户缓存键
+     */
+    public void invalidate(@NotNull String userKey) {
+        deadlines.invalidate(userKey);
+    }
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        written = Counter.builder(METRIC)
+                .tag("result", "written")
+                .description("刷新登录过期时间的次数")
+                .register(registry);
+        skipped = Counter.builder(METRIC)
+                .tag("result", "skipped")
+                .description("剩余时间充足而省去的刷新登录过期时间的次数")
+                .register(registry);
+    }
+
+}
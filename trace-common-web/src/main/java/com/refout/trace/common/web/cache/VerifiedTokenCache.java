@@ -0,0 +1,182 @@
+package com.refout.trace.common.web.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.refout.trace.common.web.util.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 已验证token的本地缓存
+ *
+ * <p>
+ * 以token的SHA-256摘要为键缓存验证通过的声明，同一token再次请求时不再base64解码、解析JSON和验证HMAC签名；
+ * 内存中不保存token原文，摘要碰撞在计算上不可行，命中即等价于验证通过。<br/>
+ * 条数不超过{@code trace.security.token-cache.maximum-size}（为0时不开启），
+ * 写入后{@code ttl-seconds}秒过期，token带有过期时间（{@code exp}）时不晚于该时间过期，过期的token不会命中。<br/>
+ * 验证失败的token不缓存。开启后注册到{@link JwtUtil}，由{@link JwtUtil#parseToken(String)}使用。<br/>
+ * 导出命中率（{@code cache.gets}，{@code cache=auth.token}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 23:40
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    /**
+     * 每个线程的SHA-256摘要
+     */
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /**
+     * 时钟
+     */
+    private final Ticker ticker;
+
+    /**
+     * 最大缓存条数，为0时不开启
+     */
+    @Value("${trace.security.token-cache.maximum-size:0}")
+    private long maximumSize;
+
+    /**
+     * 写入后的最长过期时间（秒）
+     */
+    @Value("${trace.security.token-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * token摘要到声明的缓存
+     */
+    private Cache<ByteBuffer, Claims> cache;
+
+    public VerifiedTokenCache() {
+        this(Ticker.systemTicker());
+    }
+
+    VerifiedTokenCache(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * 开启时创建缓存并注册到{@link JwtUtil}
+     */
+    @PostConstruct
+    public void init() {
+        if (maximumSize <= 0) {
+            return;
+        }
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .ticker(ticker)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(@NotNull ByteBuffer key, @NotNull Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        if (expiration == null) {
+                            return ttlNanos;
+                        }
+                        long remaining = expiration.getTime() - System.currentTimeMillis();
+                        return Math.max(0, Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(remaining)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NotNull ByteBuffer key, @NotNull Claims claims, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NotNull ByteBuffer key, @NotNull Claims claims, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        JwtUtil.verifiedTokenCache(this);
+    }
+
+    /**
+     * 取消注册
+     */
+    @PreDestroy
+    public void destroy() {
+        if (cache != null) {
+            JwtUtil.verifiedTokenCache(null);
+        }
+    }
+
+    /**
+     * 获取已验证的声明，未命中时验证并缓存
+     *
+     * @param token    token
+     * @param verifier 验证token，验证失败时返回null
+     * @return 声明，验证失败时返回null
+     */
+    public @Nullable Claims get(@NotNull String token, @NotNull Function<String, Claims> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+        return cache.get(hash(token), key -> verifier.apply(token));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "auth.token");
+        }
+    }
+
+    /**
+     * token的SHA-256摘要
+     *
+     * @param token token
+     * @return 摘要，按内容比较
+     */
+    static @NotNull ByteBuffer hash(@NotNull String token) {
+        return ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+}
@@ -2,6 +2,7 @@ package com.refout.trace.common.web.config;
 
 import com.refout.trace.common.util.JsonUtil;
 import com.refout.trace.common.web.interceptor.AuthenticatedInterceptor;
+import com.refout.trace.common.web.interceptor.ReadWriteContextInterceptor;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -35,6 +36,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .addPathPatterns("/**")
                 .excludePathPatterns(noFilter)
                 .order(0);
+        registry.addInterceptor(new ReadWriteContextInterceptor())
+                .addPathPatterns("/**");
     }
 
     /**
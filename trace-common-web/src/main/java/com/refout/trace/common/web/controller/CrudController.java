@@ -1,14 +1,19 @@
 package com.refout.trace.common.web.controller;
 
+import com.refout.trace.common.web.util.ExportUtil;
 import com.refout.trace.datasource.domain.AbstractEntity;
 import com.refout.trace.datasource.domain.query.QueryRequest;
 import com.refout.trace.datasource.domain.query.page.PageIn;
 import com.refout.trace.datasource.domain.query.page.PageOut;
 import com.refout.trace.datasource.service.CrudService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * 抽象控制器类，用于处理通用的CRUD操作。
@@ -33,15 +38,37 @@ public interface CrudController<T extends AbstractEntity, ID extends Serializabl
 
     /**
      * 分页查询实体对象
+     * <p>
+     * 默认按页码分页；{@code mode}为{@code KEYSET}时按游标分页，首次查询不传{@code cursor}，
+     * 之后传入上一页返回的{@code cursor}，返回的{@code cursor}为空表示没有下一页
+     * <p>
+     * 传入{@code fields}时只查询并返回这些字段（以及id），每条数据为字段名到值的对象，不序列化其余字段
      *
      * @param pageIn 分页查询条件
      * @return 分页查询结果
      */
     @PostMapping("/page")
-    default PageOut<T> page(@RequestBody PageIn<T, QueryRequest<T>> pageIn) {
+    default PageOut<?> page(@RequestBody PageIn<T, QueryRequest<T>> pageIn) {
         return dbBaseService().getPage(pageIn);
     }
 
+    /**
+     * 导出全部符合条件的实体对象，逐行写入响应，内存占用与导出行数无关
+     *
+     * @param query    查询条件，data不能为空
+     * @param format   导出格式，ndjson或csv，默认为ndjson
+     * @param response HttpServletResponse对象
+     */
+    @Transactional(readOnly = true)
+    @PostMapping("/export")
+    default void export(@RequestBody QueryRequest<T> query,
+                        @RequestParam(defaultValue = ExportUtil.NDJSON) String format,
+                        HttpServletResponse response) {
+        try (Stream<T> stream = dbBaseService().stream(query)) {
+            ExportUtil.export(response, stream, format, query.getData().getClass().getSimpleName());
+        }
+    }
+
     /**
      * 根据ID获取实体对象
      *
@@ -75,6 +102,17 @@ public interface CrudController<T extends AbstractEntity, ID extends Serializabl
         return dbBaseService().save(t);
     }
 
+    /**
+     * 根据ID修改实体对象的部分字段，只更新传入的字段，不加载整行数据
+     *
+     * @param id     实体对象的ID
+     * @param fields 字段名到新值的对象
+     */
+    @PatchMapping("/{id}")
+    default void patch(@PathVariable ID id, @RequestBody Map<String, Object> fields) {
+        dbBaseService().patch(id, fields);
+    }
+
     /**
      * 根据ID删除实体对象
      *
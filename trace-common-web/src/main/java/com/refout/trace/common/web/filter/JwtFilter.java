@@ -1,8 +1,12 @@
 package com.refout.trace.common.web.filter;
 
+import com.refout.trace.common.web.cache.AuthenticatedNearCache;
+import com.refout.trace.common.web.cache.AuthenticatedSessionStore;
+import com.refout.trace.common.web.cache.SessionRefreshPolicy;
 import com.refout.trace.common.web.config.CommonConfig;
 import com.refout.trace.common.web.constant.AuthCacheKey;
 import com.refout.trace.common.web.domain.Authenticated;
+import com.refout.trace.common.web.stateless.StatelessAuthenticator;
 import com.refout.trace.common.web.util.ResponseUtil;
 import com.refout.trace.common.web.util.jwt.JwtUtil;
 import com.refout.trace.common.web.wrapper.RequestHttpServletRequestWrapper;
@@ -16,18 +20,18 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.connector.RequestFacade;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 /**
  * JwtFilter类实现了Filter接口，用于JWT验证。
@@ -63,10 +67,28 @@ public class JwtFilter extends OncePerRequestFilter {
     private List<String> noFilter;
 
     /**
-     * Redis模板，用于操作Redis数据库
+     * redis中的登录信息
      */
     @Resource
-    private RedisTemplate<String, Authenticated> redisTemplateAuthenticated;
+    private AuthenticatedSessionStore authenticatedSessionStore;
+
+    /**
+     * 登录过期时间的刷新策略
+     */
+    @Resource
+    private SessionRefreshPolicy sessionRefreshPolicy;
+
+    /**
+     * 登录信息的本地近缓存
+     */
+    @Resource
+    private AuthenticatedNearCache authenticatedNearCache;
+
+    /**
+     * 无状态认证
+     */
+    @Resource
+    private StatelessAuthenticator statelessAuthenticator;
 
     /**
      * doFilter方法是Filter接口的核心方法，用于处理每次请求/响应对。
@@ -114,25 +136,22 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        String id = claims.getId();
-        String userKey = AuthCacheKey.userKey(id);
-        Boolean hasKey = redisTemplateAuthenticated.hasKey(userKey);
-        // 登录口令已过期
-        if (hasKey == null || !hasKey) {
-            log.info("缓存中无toke：{}，禁止访问", token);
-            ResponseUtil.response(response, HttpStatus.UNAUTHORIZED, "登录口令已过期，无权访问");
-            return;
+        // 开启无状态认证时只凭token声明和本地权限表认证，无法认证时回退到redis中的登录信息
+        Authenticated authenticated = statelessAuthenticator.authenticate(token, claims);
+        if (authenticated == null) {
+            String userKey = AuthCacheKey.userKey(claims.getId());
+            // 近缓存命中时不访问redis，未命中时从redis加载并刷新过期时间
+            authenticated = authenticatedNearCache.get(userKey, () -> loadAuthenticated(userKey));
         }
-        Authenticated authenticated = redisTemplateAuthenticated.boundValueOps(userKey).get();
+        // 登录口令已过期
         if (authenticated == null) {
-            log.info("获取到的缓存为空：{}，禁止访问", token);
+            log.info("缓存中无toke：{}，禁止访问", token);
             ResponseUtil.response(response, HttpStatus.UNAUTHORIZED, "登录口令已过期，无权访问");
             return;
         }
 
         // 管理员
         if (authenticated.getUser().isAdmin()) {
-            refreshToken(userKey);
             request.setAttribute(CURRENT_USER, authenticated);
             filterChain.doFilter(request, response);
             return;
@@ -144,18 +163,30 @@ public class JwtFilter extends OncePerRequestFilter {
             ResponseUtil.response(response, HttpStatus.UNAUTHORIZED, "无该功能权限，无权访问");
             return;
         }
-        refreshToken(userKey);
         request.setAttribute(CURRENT_USER, authenticated);
         filterChain.doFilter(request, response);
     }
 
     /**
-     * token过期时间刷新
+     * 从redis加载登录信息，剩余时间不足时同时刷新token过期时间
      *
      * @param userKey key
+     * @return 登录信息，登录口令已过期时返回null
      */
-    private void refreshToken(final String userKey) {
-        redisTemplateAuthenticated.expire(userKey, CommonConfig.TOKEN_EXPIRATION_SECOND.value(), TimeUnit.SECONDS);
+    private @Nullable Authenticated loadAuthenticated(final String userKey) {
+        long ttlSeconds = CommonConfig.TOKEN_EXPIRATION_SECOND.value();
+        if (!sessionRefreshPolicy.shouldRefresh(userKey, ttlSeconds)) {
+            Authenticated authenticated = authenticatedSessionStore.get(userKey);
+            if (authenticated == null) {
+                sessionRefreshPolicy.invalidate(userKey);
+            }
+            return authenticated;
+        }
+        Authenticated authenticated = authenticatedSessionStore.getAndExpire(userKey, Duration.ofSeconds(ttlSeconds));
+        if (authenticated != null) {
+            sessionRefreshPolicy.refreshed(userKey, ttlSeconds);
+        }
+        return authenticated;
     }
 
 }
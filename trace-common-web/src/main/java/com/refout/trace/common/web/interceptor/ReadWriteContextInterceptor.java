@@ -0,0 +1,41 @@
+package com.refout.trace.common.web.interceptor;
+
+import com.refout.trace.datasource.handler.routing.ReadWriteContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 读写分离上下文拦截器，每个请求开始时开启、结束时清除{@link ReadWriteContext}，
+ * 使读自己写的主库粘滞在整个请求内生效
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:10
+ */
+public class ReadWriteContextInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(@NotNull HttpServletRequest request,
+                             @NotNull HttpServletResponse response,
+                             @NotNull Object handler) {
+        ReadWriteContext.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NotNull HttpServletRequest request,
+                                @NotNull HttpServletResponse response,
+                                @NotNull Object handler, Exception ex) {
+        ReadWriteContext.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NotNull HttpServletRequest request,
+                                               @NotNull HttpServletResponse response,
+                                               @NotNull Object handler) {
+        ReadWriteContext.clear();
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.refout.trace.common.web.stateless;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串的布隆过滤器
+ *
+ * <p>
+ * 位数组大小和哈希函数个数由预期元素数量与误判率计算；
+ * 元素的两个64位哈希由FNV-1a和其再混合得到，第i个哈希函数取{@code h1 + i * h2}（双重哈希）。<br/>
+ * 不存在漏判，误判率在元素数量不超过预期时不超过设定值；只能添加不能删除，删除需要重建。<br/>
+ * 线程安全：添加与查询可以并发进行。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 22:50
+ */
+public final class BloomFilter {
+
+    /**
+     * 位数组
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数
+     */
+    private final long bitSize;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 构造函数
+     *
+     * @param expectedInsertions 预期元素数量
+     * @param fpp                误判率，0~1之间
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            expectedInsertions = 1;
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("误判率需要在0~1之间：" + fpp);
+        }
+        long size = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (size + 63) >>> 6));
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     */
+    public void put(@NotNull String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     *
+     * @param value 元素
+     * @return 可能存在时返回true，返回false时一定不存在
+     */
+    public boolean mightContain(@NotNull String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 位数
+     *
+     * @return 位数
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * 哈希函数个数
+     *
+     * @return 哈希函数个数
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64位FNV-1a哈希
+     *
+     * @param value 元素
+     * @return 哈希值
+     */
+    private static long hash(@NotNull String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * 由第一个哈希得到第二个哈希（SplitMix64的混合函数），结果为奇数保证步长不为0
+     *
+     * @param hash 第一个哈希
+     * @return 第二个哈希
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return (hash ^ (hash >>> 31)) | 1;
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.refout.trace.common.web.stateless;
+
+import com.refout.trace.common.system.service.ApiService;
+import com.refout.trace.redis.constant.CacheKeyRule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 本地的角色权限表
+ *
+ * <p>
+ * 角色到接口权限的对应关系整体加载到本地，无状态认证按token中的角色ID在本地取得权限。<br/>
+ * 权限版本是redis中的计数器{@code AUTH:PERMISSION:VERSION}，角色、菜单或用户角色变更后调用{@link #changed()}
+ * 递增版本并通过频道{@code AUTH:PERMISSION:CHANGED}通知所有节点重新加载；
+ * 通知丢失时由每{@code trace.security.stateless.version-check-millis}毫秒一次的版本检查兜底。<br/>
+ * 先读版本再加载权限，本地的权限不会比本地的版本旧；签发时的版本与本地版本不同的token由调用方回退到有状态的校验。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 23:10
+ */
+@Slf4j
+@Component
+public class PermissionTable implements MessageListener {
+
+    /**
+     * 权限版本的缓存键
+     */
+    public static final String VERSION_KEY = CacheKeyRule.key("AUTH", "PERMISSION", "VERSION");
+
+    /**
+     * 权限变更通知频道
+     */
+    public static final String CHANNEL = CacheKeyRule.key("AUTH", "PERMISSION", "CHANGED");
+
+    /**
+     * 未加载时的版本
+     */
+    public static final long UNLOADED = -1;
+
+    /**
+     * 是否开启无状态认证
+     */
+    @Value("${trace.security.stateless.enabled:false}")
+    private boolean enabled;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 接口服务
+     */
+    @Resource
+    private ApiService apiService;
+
+    /**
+     * 当前加载的权限表
+     */
+    private volatile Snapshot snapshot = new Snapshot(UNLOADED, Map.of());
+
+    /**
+     * 订阅权限变更通知并加载权限表
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        checkVersion();
+    }
+
+    /**
+     * 当前加载的权限版本
+     *
+     * @return 权限版本，未加载时为{@link #UNLOADED}
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    /**
+     * 角色的权限合集
+     *
+     * @param roleIds 角色ID
+     * @return 权限
+     */
+    public @NotNull Set<String> permissions(@NotNull Collection<Long> roleIds) {
+        Map<Long, Set<String>> rolePermissions = snapshot.rolePermissions();
+        if (roleIds.size() == 1) {
+            return rolePermissions.getOrDefault(roleIds.iterator().next(), Set.of());
+        }
+        Set<String> permissions = new TreeSet<>();
+        for (Long roleId : roleIds) {
+            permissions.addAll(rolePermissions.getOrDefault(roleId, Set.of()));
+        }
+        return permissions;
+    }
+
+    /**
+     * 权限变更后递增版本并通知所有节点重新加载，变更前签发的无状态token将回退到有状态的校验；
+     * 在事务中时在事务提交后执行
+     */
+    public void changed() {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+        });
+    }
+
+    /**
+     * 递增版本、发布通知并重新加载
+     */
+    private void increment() {
+        stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, "");
+        } catch (Exception e) {
+            log.error("权限变更通知发布失败，由版本检查兜底", e);
+        }
+        checkVersion();
+    }
+
+    /**
+     * 版本与本地不同时重新加载权限表，失败时保留原权限表
+     */
+    @Scheduled(fixedDelayString = "${trace.security.stateless.version-check-millis:10000}")
+    public synchronized void checkVersion() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String value = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            long version = value == null ? 0 : Long.parseLong(value);
+            if (version != snapshot.version()) {
+                Map<Long, Set<String>> rolePermissions = new HashMap<>();
+                apiService.getRolePermissions().forEach((roleId, permissions) ->
+                        rolePermissions.put(roleId, Collections.unmodifiableSet(permissions)));
+                snapshot = new Snapshot(version, rolePermissions);
+                log.info("角色权限表已加载，版本：{}", version);
+            }
+        } catch (Exception e) {
+            log.error("角色权限表加载失败", e);
+        }
+    }
+
+    /**
+     * 收到权限变更通知时重新加载
+     *
+     * @param message 通知
+     * @param pattern 订阅的模式
+     */
+    @Override
+    public void onMessage(@NotNull Message message, byte[] pattern) {
+        checkVersion();
+    }
+
+    /**
+     * 权限表快照
+     *
+     * @param version         权限版本
+     * @param rolePermissions 角色ID到权限的Map
+     */
+    private record Snapshot(long version, Map<Long, Set<String>> rolePermissions) {
+
+    }
+
+}
@@ -0,0 +1,202 @@
+package com.refout.trace.common.web.stateless;
+
+import com.refout.trace.redis.constant.CacheKeyRule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已撤销token的本地过滤器
+ *
+ * <p>
+ * 撤销的token ID（jti）以token的过期时间为分数写入redis有序集合{@code AUTH:REVOKED}，
+ * 并通过频道{@code AUTH:REVOKED:NOTIFY}通知所有节点加入本地的{@link BloomFilter}，查询不访问redis。<br/>
+ * 每{@code trace.security.stateless.revocation.rebuild-millis}毫秒删除已过期的撤销记录并重建过滤器，
+ * 过期的token本身已无法通过验证，重建后不再占用位数组；重建同时补上丢失的通知。<br/>
+ * 过滤器未加载成功前所有token都视为可能已撤销，由调用方回退到有状态的校验。<br/>
+ * 导出当前过滤器中的撤销数量（{@code trace.auth.revoked}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 23:00
+ */
+@Slf4j
+@Component
+public class RevocationFilter implements MessageListener, MeterBinder {
+
+    /**
+     * 撤销记录的有序集合，分数为token的过期时间（毫秒）
+     */
+    public static final String KEY = CacheKeyRule.key("AUTH", "REVOKED");
+
+    /**
+     * 撤销通知频道
+     */
+    public static final String CHANNEL = CacheKeyRule.key("AUTH", "REVOKED", "NOTIFY");
+
+    /**
+     * 是否开启无状态认证
+     */
+    @Value("${trace.security.stateless.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 预期的撤销数量
+     */
+    @Value("${trace.security.stateless.revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    /**
+     * 误判率，误判的token回退到有状态的校验
+     */
+    @Value("${trace.security.stateless.revocation.fpp:0.001}")
+    private double fpp;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 当前过滤器，未加载成功时为null
+     */
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建中的过滤器，不在重建时为null
+     */
+    private volatile BloomFilter building;
+
+    /**
+     * 当前过滤器中的撤销数量
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * 订阅撤销通知并加载过滤器
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 撤销token，在所有节点生效
+     *
+     * @param jti            token ID
+     * @param expirationTime token的过期时间（毫秒），之后撤销记录可以删除
+     */
+    public void revoke(@NotNull String jti, long expirationTime) {
+        stringRedisTemplate.opsForZSet().add(KEY, jti, expirationTime);
+        put(jti);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, jti);
+        } catch (Exception e) {
+            log.error("token撤销通知发布失败：{}，由定期重建兜底", jti, e);
+        }
+    }
+
+    /**
+     * token是否可能已撤销
+     *
+     * @param jti token ID
+     * @return 可能已撤销或过滤器未加载时返回true，返回false时一定未撤销
+     */
+    public boolean mightBeRevoked(@NotNull String jti) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(jti);
+    }
+
+    /**
+     * 删除已过期的撤销记录并从redis重建过滤器，失败时保留原过滤器
+     */
+    @Scheduled(fixedDelayString = "${trace.security.stateless.revocation.rebuild-millis:60000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(expectedInsertions, fpp);
+        // 重建期间收到的撤销同时加入新过滤器；在此之前收到的撤销已写入redis，下面的读取可以读到
+        building = rebuilt;
+        try {
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.opsForZSet().removeRangeByScore(KEY, Double.NEGATIVE_INFINITY, now);
+            Set<String> revoked = stringRedisTemplate.opsForZSet().rangeByScore(KEY, now, Double.POSITIVE_INFINITY);
+            if (revoked != null) {
+                revoked.forEach(rebuilt::put);
+            }
+            filter = rebuilt;
+            size.set(revoked == null ? 0 : revoked.size());
+            if (size.get() > expectedInsertions) {
+                log.warn("撤销数量{}超过预期{}，误判率将升高", size.get(), expectedInsertions);
+            }
+        } catch (Exception e) {
+            log.error("撤销过滤器重建失败", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 收到撤销通知时加入本地过滤器
+     *
+     * @param message 通知
+     * @param pattern 订阅的模式
+     */
+    @Override
+    public void onMessage(@NotNull Message message, byte[] pattern) {
+        put(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("trace.auth.revoked", size, AtomicLong::get)
+                .description("撤销过滤器中未过期的撤销数量")
+                .register(registry);
+    }
+
+    /**
+     * 加入本地过滤器
+     *
+     * @param jti token ID
+     */
+    private void put(String jti) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(jti);
+        }
+        BloomFilter rebuilt = building;
+        if (rebuilt != null) {
+            rebuilt.put(jti);
+        }
+        size.incrementAndGet();
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.refout.trace.common.web.stateless;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.web.config.CommonConfig;
+import com.refout.trace.common.web.domain.Authenticated;
+import com.refout.trace.common.web.util.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无状态认证
+ *
+ * <p>
+ * 开启{@code trace.security.stateless.enabled}后，登录签发的token携带用户ID、用户名、角色ID、签发时的权限版本和过期时间，
+ * 验证通过的token按角色ID从{@link PermissionTable}取得权限，不读取redis中的登录信息。<br/>
+ * 以下情况返回null，由调用方回退到有状态的校验（redis中的登录信息仍在登录时写入）：
+ * token不含无状态认证的声明；签发时的权限版本与本地不同；{@link RevocationFilter}判断token或其用户可能已撤销（包括误判）。<br/>
+ * 停用或删除用户后调用{@link #revokeUsers(Collection)}，该用户已签发的无状态token回退到有状态的校验。<br/>
+ * 无状态token在过期时间后失效，不随请求滑动续期。<br/>
+ * 导出认证次数（{@code trace.auth.stateless}，{@code result=verified/fallback}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 23:20
+ */
+@Component
+public class StatelessAuthenticator implements MeterBinder {
+
+    /**
+     * 指标名称
+     */
+    private static final String METRIC = "trace.auth.stateless";
+
+    /**
+     * 按用户撤销时撤销记录的前缀
+     */
+    private static final String USER_PREFIX = "user:";
+
+    /**
+     * 是否开启无状态认证
+     */
+    @Value("${trace.security.stateless.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 本地的角色权限表
+     */
+    @Resource
+    private PermissionTable permissionTable;
+
+    /**
+     * 已撤销token的本地过滤器
+     */
+    @Resource
+    private RevocationFilter revocationFilter;
+
+    /**
+     * 无状态认证通过的次数
+     */
+    private Counter verified;
+
+    /**
+     * 回退到有状态校验的次数
+     */
+    private Counter fallback;
+
+    /**
+     * 是否开启无状态认证
+     *
+     * @return 开启时返回true
+     */
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * 登录时写入token的声明
+     *
+     * @param user    用户
+     * @param roleIds 用户的角色ID
+     * @return 声明
+     */
+    public @NotNull Map<String, Object> claims(@NotNull User user, @NotNull Collection<Long> roleIds) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_USER_ID, user.getId());
+        claims.put(JwtUtil.CLAIM_USERNAME, user.getUsername());
+        claims.put(JwtUtil.CLAIM_ROLES, List.copyOf(roleIds));
+        claims.put(JwtUtil.CLAIM_PERMISSION_VERSION, permissionTable.version());
+        return claims;
+    }
+
+    /**
+     * 由已验证的token声明得到登录信息
+     *
+     * @param token  token
+     * @param claims 已验证签名和过期时间的声明
+     * @return 登录信息，未开启或需要回退到有状态的校验时返回null
+     */
+    public @Nullable Authenticated authenticate(@NotNull String token, @NotNull Claims claims) {
+        if (!enabled) {
+            return null;
+        }
+        Authenticated authenticated = fromClaims(token, claims);
+        Counter counter = authenticated == null ? fallback : verified;
+        if (counter != null) {
+            counter.increment();
+        }
+        return authenticated;
+    }
+
+    /**
+     * 撤销token，未开启或token不含过期时间时忽略
+     *
+     * @param claims token的声明
+     */
+    public void revoke(@Nullable Claims claims) {
+        if (!enabled || claims == null || claims.getId() == null || claims.getExpiration() == null) {
+            return;
+        }
+        revocationFilter.revoke(claims.getId(), claims.getExpiration().getTime());
+    }
+
+    /**
+     * 撤销用户已签发的全部无状态token，未开启时忽略；
+     * 撤销记录保留一个token有效期，期间该用户新签发的token同样回退到有状态的校验
+     *
+     * @param userIds 用户ID
+     */
+    public void revokeUsers(@NotNull Collection<Long> userIds) {
+        if (!enabled || userIds.isEmpty()) {
+            return;
+        }
+        long expirationTime = System.currentTimeMillis()
+                + TimeUnit.SECONDS.toMillis(CommonConfig.TOKEN_EXPIRATION_SECOND.value());
+        userIds.forEach(userId -> revocationFilter.revoke(USER_PREFIX + userId, expirationTime));
+    }
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        verified = Counter.builder(METRIC)
+                .tag("result", "verified")
+                .description("只凭token声明完成认证的次数")
+                .register(registry);
+        fallback = Counter.builder(METRIC)
+                .tag("result", "fallback")
+                .description("回退到redis登录信息认证的次数")
+                .register(registry);
+    }
+
+    /**
+     * 由声明得到登录信息
+     *
+     * @param token  token
+     * @param claims 声明
+     * @return 登录信息，需要回退时返回null
+     */
+    private @Nullable Authenticated fromClaims(@NotNull String token, @NotNull Claims claims) {
+        String jti = claims.getId();
+        if (jti == null
+                || !(claims.get(JwtUtil.CLAIM_USER_ID) instanceof Number userId)
+                || !(claims.get(JwtUtil.CLAIM_PERMISSION_VERSION) instanceof Number version)
+                || !(claims.get(JwtUtil.CLAIM_ROLES) instanceof Collection<?> roles)) {
+            return null;
+        }
+        if (version.longValue() != permissionTable.version() || revocationFilter.mightBeRevoked(jti)
+                || revocationFilter.mightBeRevoked(USER_PREFIX + userId.longValue())) {
+            return null;
+        }
+        List<Long> roleIds = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            if (!(role instanceof Number roleId)) {
+                return null;
+            }
+            roleIds.add(roleId.longValue());
+        }
+        User user = new User().setUsername(claims.get(JwtUtil.CLAIM_USERNAME, String.class));
+        user.setId(userId.longValue());
+        return new Authenticated(token, user, permissionTable.permissions(roleIds),
+                toLocalDateTime(claims.getIssuedAt()), toLocalDateTime(claims.getExpiration()), null, null, null);
+    }
+
+    /**
+     * 时间转换
+     *
+     * @param date 时间
+     * @return 本地时间，为null时返回null
+     */
+    private static @Nullable LocalDateTime toLocalDateTime(@Nullable Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.refout.trace.common.web.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.refout.trace.common.util.JsonUtil;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 导出工具类，将数据流逐行写入响应的输出流，不在内存中缓存全部数据。
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:40
+ */
+public class ExportUtil {
+
+    /**
+     * 支持的导出格式：每行一个JSON对象
+     */
+    public static final String NDJSON = "ndjson";
+
+    /**
+     * 支持的导出格式：逗号分隔，第一行为表头
+     */
+    public static final String CSV = "csv";
+
+    /**
+     * 每写入多少行刷新一次输出流
+     */
+    private static final int FLUSH_ROWS = 1000;
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * 将数据流写入响应
+     *
+     * @param response HttpServletResponse对象
+     * @param stream   数据流
+     * @param format   导出格式，{@link #NDJSON}或{@link #CSV}
+     * @param filename 不带扩展名的文件名
+     * @return 写入的行数
+     * @throws IllegalArgumentException 当导出格式不支持时抛出异常
+     */
+    public static long export(@NotNull HttpServletResponse response, @NotNull Stream<?> stream,
+                              @NotNull String format, @NotNull String filename) {
+        boolean csv = CSV.equalsIgnoreCase(format);
+        if (!csv && !NDJSON.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("不支持的导出格式：" + format);
+        }
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"" + filename + "." + format.toLowerCase() + "\"");
+        try (OutputStream out = new BufferedOutputStream(response.getOutputStream())) {
+            return csv ? csv(stream, out) : ndjson(stream, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 按NDJSON格式写入
+     *
+     * @param stream 数据流
+     * @param out    输出流
+     * @return 写入的行数
+     * @throws IOException 当写入失败时抛出异常
+     */
+    public static long ndjson(@NotNull Stream<?> stream, @NotNull OutputStream out) throws IOException {
+        long rows = 0;
+        Iterator<?> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            out.write(JsonUtil.mapper.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++rows % FLUSH_ROWS == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    /**
+     * 按CSV格式写入，表头取第一行的属性名，非标量的属性值写为JSON
+     *
+     * @param stream 数据流
+     * @param out    输出流
+     * @return 写入的行数，不含表头
+     * @throws IOException 当写入失败时抛出异常
+     */
+    public static long csv(@NotNull Stream<?> stream, @NotNull OutputStream out) throws IOException {
+        long rows = 0;
+        List<String> header = null;
+        Iterator<?> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            Map<String, Object> row = JsonUtil.mapper.convertValue(iterator.next(), ROW_TYPE);
+            if (header == null) {
+                header = List.copyOf(row.keySet());
+                writeLine(out, header.stream().map(it -> (Object) it).toList());
+            }
+            writeLine(out, header.stream().map(row::get).toList());
+            if (++rows % FLUSH_ROWS == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+        return rows;
+    }
+
+    private static void writeLine(@NotNull OutputStream out, @NotNull List<Object> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(escape(values.get(i)));
+        }
+        line.append("\r\n");
+        out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Map<?, ?> || value instanceof Iterable<?> ?
+                JsonUtil.toJson(value) : String.valueOf(value);
+        if (text == null) {
+            return "";
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+}
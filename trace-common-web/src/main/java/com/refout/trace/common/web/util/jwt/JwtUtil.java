@@ -1,11 +1,13 @@
 package com.refout.trace.common.web.util.jwt;
 
+import com.refout.trace.common.web.cache.VerifiedTokenCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.apache.catalina.connector.RequestFacade;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.Map;
 
 /**
@@ -21,6 +23,26 @@ public class JwtUtil {
 
 	public static final String BEARER = "Bearer ";
 
+	/**
+	 * 无状态认证：用户ID
+	 */
+	public static final String CLAIM_USER_ID = "uid";
+
+	/**
+	 * 无状态认证：用户名
+	 */
+	public static final String CLAIM_USERNAME = "un";
+
+	/**
+	 * 无状态认证：角色ID列表
+	 */
+	public static final String CLAIM_ROLES = "rol";
+
+	/**
+	 * 无状态认证：签发时的权限版本
+	 */
+	public static final String CLAIM_PERMISSION_VERSION = "pv";
+
 	/**
 	 * 令牌秘钥随机字符串
 	 */
@@ -31,6 +53,16 @@ public class JwtUtil {
 	 */
 	private static final SecretKey key = Keys.hmacShaKeyFor(secretString.getBytes(StandardCharsets.UTF_8));
 
+	/**
+	 * 令牌解析器，不可变，线程安全
+	 */
+	private static final JwtParser parser = Jwts.parser().verifyWith(key).build();
+
+	/**
+	 * 已验证token的缓存，未开启时为null
+	 */
+	private static volatile VerifiedTokenCache verifiedTokenCache;
+
 	/**
 	 * 创建token
 	 *
@@ -49,38 +81,67 @@ public class JwtUtil {
 	 * @return token
 	 */
 	public static String createToken(Map<String, Object> claims, String jti) {
-		JwtBuilder jwtBuilder = Jwts.builder()
-				.id(jti)
-				.signWith(key);
+		return createToken(claims, jti, null);
+	}
+
+	/**
+	 * 创建token
+	 *
+	 * @param claims           数据载体
+	 * @param jti              token id
+	 * @param expiration       过期时间，为null时不过期
+	 * @return token
+	 */
+	public static String createToken(Map<String, Object> claims, String jti, Date expiration) {
+		JwtBuilder jwtBuilder = Jwts.builder();
 
 		if (claims != null) {
 			jwtBuilder.claims(claims);
 		}
-		return jwtBuilder.compact();
+		jwtBuilder.id(jti);
+		if (expiration != null) {
+			jwtBuilder.issuedAt(new Date()).expiration(expiration);
+		}
+		return jwtBuilder.signWith(key).compact();
 	}
 
 	/**
-	 * 解析token
+	 * 解析token，开启已验证token的缓存时同一token只验证一次
 	 *
 	 * @param token token字符串
-	 * @return 解析后的数据
+	 * @return 解析后的数据，未签名、签名错误或已过期时返回null
 	 */
 	public static Claims parseToken(String token) {
 		if (token == null || token.isBlank()) {
 			return null;
 		}
+		VerifiedTokenCache cache = verifiedTokenCache;
+		return cache == null ? verifyToken(token) : cache.get(token, JwtUtil::verifyToken);
+	}
+
+	/**
+	 * 解析并验证token，一次完成签名与过期时间的验证，未签名的token同样解析失败
+	 *
+	 * @param token token字符串
+	 * @return 解析后的数据，验证失败时返回null
+	 */
+	public static Claims verifyToken(String token) {
 		try {
-			JwtParser build = Jwts.parser().verifyWith(key).build();
-			if (!build.isSigned(token)) {
-				return null;
-			}
-			Jws<Claims> claimsJws = build.parseSignedClaims(token);
-			return claimsJws.getPayload();
+			return parser.parseSignedClaims(token).getPayload();
 		} catch (JwtException e) {
 			return null;
 		}
 	}
 
+	/**
+	 * 设置已验证token的缓存
+	 *
+	 * @param cache 缓存，为null时不使用缓存
+	 */
+	public static void verifiedTokenCache(VerifiedTokenCache cache) {
+		verifiedTokenCache = cache;
+	}
+
 	public static String getToken(RequestFacade request) {
 		// 从请求头中获取JWT令牌
 		final String authorization = request.getHeader(JwtUtil.AUTHORIZATION);
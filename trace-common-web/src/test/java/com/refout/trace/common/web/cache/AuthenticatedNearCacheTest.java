@@ -0,0 +1,124 @@
+package com.refout.trace.common.web.cache;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.web.domain.Authenticated;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class AuthenticatedNearCacheTest {
+
+    private static final String USER_KEY = "AUTH:USER:TOKEN-ID";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AuthenticatedNearCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticatedNearCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+        cache.bindTo(registry);
+    }
+
+    private Authenticated load() {
+        loads.incrementAndGet();
+        return new Authenticated("token", null, null, null, null, null, null, null);
+    }
+
+    private Authenticated login(long userId) {
+        loads.incrementAndGet();
+        User user = new User();
+        user.setId(userId);
+        return new Authenticated("token", user, null, null, null, null, null, null);
+    }
+
+    private static DefaultMessage message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testHitDoesNotLoadAgain() {
+        Authenticated first = cache.get(USER_KEY, this::load);
+        Authenticated second = cache.get(USER_KEY, this::load);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("trace.auth.near-cache.age").timer().count());
+    }
+
+    @Test
+    void testExpiredLoginNotCached() {
+        assertNull(cache.get(USER_KEY, () -> {
+            loads.incrementAndGet();
+            return null;
+        }));
+        assertNotNull(cache.get(USER_KEY, this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidationMessages() {
+        cache.get(USER_KEY, this::load);
+        cache.onMessage(message(AuthenticatedNearCache.CHANNEL, USER_KEY), null);
+        cache.get(USER_KEY, this::load);
+        assertEquals(2, loads.get());
+
+        cache.onMessage(message(AuthenticatedNearCache.CHANNEL, AuthenticatedNearCache.ALL), null);
+        cache.get(USER_KEY, this::load);
+        assertEquals(3, loads.get());
+
+        cache.onMessage(message("__keyspace@0__:" + USER_KEY, "expire"), null);
+        cache.get(USER_KEY, this::load);
+        assertEquals(3, loads.get());
+
+        cache.onMessage(message("__keyspace@0__:" + USER_KEY, "del"), null);
+        cache.get(USER_KEY, this::load);
+        assertEquals(4, loads.get());
+        assertEquals(3, registry.get("trace.auth.near-cache.invalidations").counter().count());
+    }
+
+    @Test
+    void testInvalidateUsers() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ReflectionTestUtils.setField(cache, "stringRedisTemplate", redisTemplate);
+        cache.get("AUTH:USER:T1", () -> login(1L));
+        cache.get("AUTH:USER:T2", () -> login(2L));
+
+        cache.invalidateUsers(List.of(1L));
+        verify(redisTemplate).convertAndSend(AuthenticatedNearCache.CHANNEL, AuthenticatedNearCache.USER_PREFIX + "1");
+        cache.get("AUTH:USER:T1", () -> login(1L));
+        cache.get("AUTH:USER:T2", () -> login(2L));
+        assertEquals(3, loads.get(), "只失效该用户的登录");
+
+        cache.onMessage(message(AuthenticatedNearCache.CHANNEL, AuthenticatedNearCache.USER_PREFIX + "2,3"), null);
+        cache.get("AUTH:USER:T1", () -> login(1L));
+        cache.get("AUTH:USER:T2", () -> login(2L));
+        assertEquals(4, loads.get(), "其他节点通知的用户登录失效");
+    }
+
+    @Test
+    void testDisabledAlwaysLoads() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.get(USER_KEY, this::load);
+        cache.get(USER_KEY, this::load);
+        assertEquals(2, loads.get());
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.refout.trace.common.web.cache;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.web.constant.AuthCacheKey;
+import com.refout.trace.common.web.domain.Authenticated;
+import com.refout.trace.redis.config.RedisConfig;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * JwtFilter读取登录信息并刷新过期时间的JMH基准测试，对比原来的hasKey、get、expire三次往返与一次往返的GETEX、Lua脚本。
+ * <p>
+ * 需要本地redis（localhost:6379，可用{@code -Dtrace.benchmark.redis.host}和{@code -Dtrace.benchmark.redis.port}修改），
+ * 运行方式：在IDE中直接运行main方法，或
+ * {@code mvn -pl trace-common-web -am test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.refout.trace.common.web.cache.AuthenticatedSessionBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthenticatedSessionBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final String userKey = AuthCacheKey.userKey("benchmark");
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private RedisTemplate<String, Authenticated> redisTemplate;
+
+    private AuthenticatedSessionStore store;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("trace.benchmark.redis.host", "localhost"),
+                Integer.getInteger("trace.benchmark.redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        store = new AuthenticatedSessionStore(redisTemplate);
+
+        // 与登录时写入的数据大小相当：用户信息和100个接口权限
+        User user = new User().setUsername("benchmark").setNickname("benchmark").setPhone("19000000000");
+        TreeSet<String> permissions = IntStream.range(0, 100)
+                .mapToObj(i -> "/system/api/" + i)
+                .collect(Collectors.toCollection(TreeSet::new));
+        LocalDateTime now = LocalDateTime.now();
+        Authenticated authenticated = new Authenticated("token", user, permissions, now, now.plus(TTL),
+                "127.0.0.1", "Chrome", "Windows");
+        redisTemplate.opsForValue().set(userKey, authenticated, TTL);
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisTemplate.delete(userKey);
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Authenticated threeRoundTrips() {
+        Boolean hasKey = redisTemplate.hasKey(userKey);
+        if (hasKey == null || !hasKey) {
+            return null;
+        }
+        Authenticated authenticated = redisTemplate.boundValueOps(userKey).get();
+        redisTemplate.expire(userKey, TTL.toSeconds(), TimeUnit.SECONDS);
+        return authenticated;
+    }
+
+    @Benchmark
+    public Authenticated getex() {
+        return store.getAndExpire(userKey, TTL);
+    }
+
+    @Benchmark
+    public Authenticated script() {
+        return store.getAndExpireByScript(userKey, TTL);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthenticatedSessionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
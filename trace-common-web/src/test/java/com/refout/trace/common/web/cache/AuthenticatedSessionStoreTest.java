@@ -0,0 +1,68 @@
+package com.refout.trace.common.web.cache;
+
+import com.refout.trace.common.web.domain.Authenticated;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuthenticatedSessionStoreTest {
+
+    private static final String USER_KEY = "AUTH:USER:TOKEN-ID";
+
+    private static final Duration TTL = Duration.ofSeconds(1800);
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Authenticated> redisTemplate = mock(RedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, Authenticated> valueOperations = mock(ValueOperations.class);
+
+    private final AuthenticatedSessionStore store = new AuthenticatedSessionStore(redisTemplate);
+
+    private final Authenticated authenticated = new Authenticated("token", null, null, null, null, null, null, null);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetex() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire(USER_KEY, TTL)).thenReturn(authenticated);
+        assertSame(authenticated, store.getAndExpire(USER_KEY, TTL));
+        verify(redisTemplate, never()).execute(eq(AuthenticatedSessionStore.GET_AND_EXPIRE), any(RedisSerializer.class),
+                any(RedisSerializer.class), anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFallbackToScriptWhenGetexUnsupported() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.getAndExpire(USER_KEY, TTL)).thenThrow(
+                new RedisSystemException("Error in execution", new RuntimeException("ERR unknown command 'GETEX'")));
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) RedisSerializer.json());
+        when(redisTemplate.execute(eq(AuthenticatedSessionStore.GET_AND_EXPIRE), any(RedisSerializer.class),
+                any(RedisSerializer.class), eq(List.of(USER_KEY)), eq("1800"))).thenReturn(authenticated);
+
+        assertSame(authenticated, store.getAndExpire(USER_KEY, TTL));
+        assertSame(authenticated, store.getAndExpire(USER_KEY, TTL));
+        verify(valueOperations, times(1)).getAndExpire(USER_KEY, TTL);
+    }
+
+    @Test
+    void testOtherErrorsPropagate() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        RedisSystemException failure = new RedisSystemException("Connection refused", null);
+        when(valueOperations.getAndExpire(USER_KEY, TTL)).thenThrow(failure);
+        assertSame(failure, assertThrows(RedisSystemException.class, () -> store.getAndExpire(USER_KEY, TTL)));
+    }
+
+}
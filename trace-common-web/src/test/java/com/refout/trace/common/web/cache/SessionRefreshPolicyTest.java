@@ -0,0 +1,76 @@
+package com.refout.trace.common.web.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionRefreshPolicyTest {
+
+    private static final String USER_KEY = "AUTH:USER:TOKEN-ID";
+
+    private static final long TTL_SECONDS = 1800;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private SessionRefreshPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        policy = new SessionRefreshPolicy(nanos::get);
+        ReflectionTestUtils.setField(policy, "refreshThreshold", 0.5);
+        ReflectionTestUtils.setField(policy, "maximumSize", 100L);
+        policy.init();
+        policy.bindTo(registry);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private double count(String result) {
+        return registry.get("trace.auth.session.refresh").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testUnknownSessionRefreshes() {
+        assertTrue(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+    }
+
+    @Test
+    void testSkipsUntilThreshold() {
+        policy.refreshed(USER_KEY, TTL_SECONDS);
+        advanceSeconds(899);
+        assertFalse(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+        advanceSeconds(2);
+        assertTrue(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+        assertEquals(1, count("written"));
+        assertEquals(1, count("skipped"));
+    }
+
+    @Test
+    void testExpiredAndInvalidatedSessionsRefresh() {
+        policy.refreshed(USER_KEY, TTL_SECONDS);
+        policy.invalidate(USER_KEY);
+        assertTrue(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+
+        policy.refreshed(USER_KEY, TTL_SECONDS);
+        advanceSeconds(TTL_SECONDS + 1);
+        assertTrue(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+    }
+
+    @Test
+    void testThresholdOneAlwaysRefreshes() {
+        ReflectionTestUtils.setField(policy, "refreshThreshold", 1.0);
+        policy.refreshed(USER_KEY, TTL_SECONDS);
+        assertTrue(policy.shouldRefresh(USER_KEY, TTL_SECONDS));
+    }
+
+}
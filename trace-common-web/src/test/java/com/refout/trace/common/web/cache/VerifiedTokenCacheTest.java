@@ -0,0 +1,92 @@
+package com.refout.trace.common.web.cache;
+
+import com.refout.trace.common.web.util.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    private final Function<String, Claims> verifier = token -> {
+        verifications.incrementAndGet();
+        return JwtUtil.verifyToken(token);
+    };
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(nanos::get);
+        ReflectionTestUtils.setField(cache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        cache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.destroy();
+    }
+
+    @Test
+    void repeatTokenVerifiedOnce() {
+        String token = JwtUtil.createToken("jti-1");
+        Claims first = cache.get(token, verifier);
+        Claims second = cache.get(token, verifier);
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(1, verifications.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(301));
+        assertNotNull(cache.get(token, verifier));
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void invalidTokenNotCached() {
+        String token = JwtUtil.createToken("jti-2");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertNull(cache.get(tampered, verifier));
+        assertNull(cache.get(tampered, verifier));
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void expiresNoLaterThanTokenExpiration() {
+        String token = JwtUtil.createToken(null, "jti-3", new Date(System.currentTimeMillis() + 10_000));
+        assertNotNull(cache.get(token, verifier));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertNotNull(cache.get(token, verifier));
+        assertEquals(1, verifications.get());
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        cache.get(token, verifier);
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void parseTokenUsesRegisteredCache() {
+        String token = JwtUtil.createToken("jti-4");
+        Claims claims = JwtUtil.parseToken(token);
+        assertNotNull(claims);
+        assertSame(claims, JwtUtil.parseToken(token));
+
+        cache.destroy();
+        assertNotSame(claims, JwtUtil.parseToken(token));
+        assertEquals(VerifiedTokenCache.hash(token), VerifiedTokenCache.hash(new String(token)));
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.refout.trace.common.web.stateless;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.web.domain.Authenticated;
+import com.refout.trace.common.web.util.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class StatelessAuthenticatorTest {
+
+    private final PermissionTable permissionTable = mock(PermissionTable.class);
+
+    private final RevocationFilter revocationFilter = mock(RevocationFilter.class);
+
+    private final StatelessAuthenticator authenticator = new StatelessAuthenticator();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authenticator, "enabled", true);
+        ReflectionTestUtils.setField(authenticator, "permissionTable", permissionTable);
+        ReflectionTestUtils.setField(authenticator, "revocationFilter", revocationFilter);
+        when(permissionTable.version()).thenReturn(3L);
+        when(permissionTable.permissions(anyCollection())).thenReturn(Set.of("/user"));
+        User user = new User().setUsername("alice");
+        user.setId(42L);
+        token = JwtUtil.createToken(authenticator.claims(user, List.of(7L, 8L)), "jti-1",
+                new Date(System.currentTimeMillis() + 60_000));
+    }
+
+    @Test
+    void authenticateFromClaims() {
+        Authenticated authenticated = authenticator.authenticate(token, claims());
+        assertNotNull(authenticated);
+        assertEquals(42L, authenticated.getUser().getId());
+        assertEquals("alice", authenticated.getUser().getUsername());
+        assertEquals(Set.of("/user"), authenticated.getPermissions());
+        assertNotNull(authenticated.getExpireTime());
+        verify(permissionTable).permissions(List.of(7L, 8L));
+    }
+
+    @Test
+    void fallbackWhenVersionChangedOrRevoked() {
+        when(permissionTable.version()).thenReturn(4L);
+        assertNull(authenticator.authenticate(token, claims()));
+
+        when(permissionTable.version()).thenReturn(3L);
+        when(revocationFilter.mightBeRevoked(anyString())).thenReturn(true);
+        assertNull(authenticator.authenticate(token, claims()));
+    }
+
+    @Test
+    void fallbackWhenUserRevoked() {
+        when(revocationFilter.mightBeRevoked("user:43")).thenReturn(true);
+        assertNotNull(authenticator.authenticate(token, claims()));
+
+        when(revocationFilter.mightBeRevoked("user:42")).thenReturn(true);
+        assertNull(authenticator.authenticate(token, claims()));
+    }
+
+    @Test
+    void fallbackForStatefulTokenAndWhenDisabled() {
+        String stateful = JwtUtil.createToken("jti-2");
+        assertNull(authenticator.authenticate(stateful, JwtUtil.parseToken(stateful)));
+
+        ReflectionTestUtils.setField(authenticator, "enabled", false);
+        assertNull(authenticator.authenticate(token, claims()));
+        authenticator.revoke(claims());
+        verifyNoInteractions(revocationFilter);
+    }
+
+    @Test
+    void revokeWithExpiration() {
+        Claims claims = claims();
+        authenticator.revoke(claims);
+        verify(revocationFilter).revoke("jti-1", claims.getExpiration().getTime());
+    }
+
+    private Claims claims() {
+        Claims claims = JwtUtil.parseToken(token);
+        assertNotNull(claims);
+        return claims;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.refout.trace.common.web.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportUtilTest {
+
+    record Row(String name, String remark, List<String> tags) {
+    }
+
+    @Test
+    void testNdjson() throws UnsupportedEncodingException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long rows = ExportUtil.export(response, Stream.of(new Row("a", null, List.of()), new Row("b", "x", List.of("t"))),
+                ExportUtil.NDJSON, "row");
+        assertEquals(2, rows);
+        assertEquals("application/x-ndjson;charset=UTF-8", response.getContentType());
+        assertEquals("attachment; filename=\"row.ndjson\"", response.getHeader("Content-Disposition"));
+        assertEquals("""
+                {"name":"a","remark":null,"tags":[]}
+                {"name":"b","remark":"x","tags":["t"]}
+                """, response.getContentAsString());
+    }
+
+    @Test
+    void testCsv() throws UnsupportedEncodingException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        long rows = ExportUtil.export(response,
+                Stream.of(new Row("a", "1,\"2\"", List.of("t")), Map.of("name", "b")), "CSV", "row");
+        assertEquals(2, rows);
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("name,remark,tags\r\na,\"1,\"\"2\"\"\",\"[\"\"t\"\"]\"\r\nb,,\r\n", response.getContentAsString());
+    }
+
+    @Test
+    void testUnsupportedFormat() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ExportUtil.export(new MockHttpServletResponse(), Stream.empty(), "xml", "row"));
+    }
+
+}
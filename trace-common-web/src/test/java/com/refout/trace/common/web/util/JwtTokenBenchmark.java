@@ -0,0 +1,108 @@
+package com.refout.trace.common.web.util;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.web.cache.VerifiedTokenCache;
+import com.refout.trace.common.web.util.jwt.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtFilter解析token阶段的JMH基准测试：从Authorization请求头取出token并得到已验证的声明。
+ * <p>
+ * 对比原来每次新建解析器并先isSigned再parseSignedClaims（解析、验证两遍），共享解析器一次解析，
+ * 以及已验证token的缓存命中。token携带无状态认证的声明，大小与开启无状态认证时相当。<br/>
+ * 运行方式：在IDE中直接运行main方法，或
+ * {@code mvn -pl trace-common-web -am test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.refout.trace.common.web.util.JwtTokenBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+    private String authorization;
+
+    private SecretKey key;
+
+    private VerifiedTokenCache cache;
+
+    @Setup
+    public void setUp() {
+        User user = new User().setUsername("benchmark");
+        user.setId(1024L);
+        Map<String, Object> claims = Map.of(
+                JwtUtil.CLAIM_USER_ID, user.getId(),
+                JwtUtil.CLAIM_USERNAME, user.getUsername(),
+                JwtUtil.CLAIM_ROLES, List.of(1L, 2L, 3L),
+                JwtUtil.CLAIM_PERMISSION_VERSION, 7L
+        );
+        String token = JwtUtil.createToken(claims, "benchmark-token-id",
+                new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        authorization = JwtUtil.BEARER + token;
+        key = (SecretKey) ReflectionTestUtils.getField(JwtUtil.class, "key");
+
+        cache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(cache, "maximumSize", 10_000L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+        cache.init();
+        // init注册到JwtUtil，parseToken各方法之间互不影响，这里取消注册
+        JwtUtil.verifiedTokenCache(null);
+    }
+
+    /**
+     * 原来的实现：每次新建解析器，isSigned与parseSignedClaims各解析一遍
+     */
+    @Benchmark
+    public Claims perCallParserTwoPass() {
+        String token = token();
+        JwtParser parser = Jwts.parser().verifyWith(key).build();
+        if (!parser.isSigned(token)) {
+            return null;
+        }
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * 共享解析器，一次解析并验证
+     */
+    @Benchmark
+    public Claims sharedParserSinglePass() {
+        return JwtUtil.verifyToken(token());
+    }
+
+    /**
+     * 已验证token的缓存命中：只计算SHA-256摘要并查找
+     */
+    @Benchmark
+    public Claims verifiedTokenCacheHit() {
+        return cache.get(token(), JwtUtil::verifyToken);
+    }
+
+    private String token() {
+        return authorization.substring(JwtUtil.BEARER.length());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtTokenBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -2,11 +2,13 @@ package com.refout.trace.common.web.util;
 
 import com.refout.trace.common.web.util.jwt.JwtUtil;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.apache.catalina.connector.RequestFacade;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -59,6 +61,18 @@ public class JwtUtilTest {
         Assertions.assertNull(claims);
     }
 
+    @Test
+    public void testParseTokenWithUnsignedToken() {
+        String unsigned = Jwts.builder().id("12345").compact();
+        Assertions.assertNull(JwtUtil.parseToken(unsigned));
+    }
+
+    @Test
+    public void testParseTokenWithExpiredToken() {
+        String token = JwtUtil.createToken(null, "12345", new Date(System.currentTimeMillis() - 1000));
+        Assertions.assertNull(JwtUtil.parseToken(token));
+    }
+
     @Test
     public void testGetTokenWithValidAuthorizationHeader() {
         RequestFacade request = Mockito.mock(RequestFacade.class);
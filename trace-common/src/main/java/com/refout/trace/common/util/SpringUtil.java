@@ -5,6 +5,7 @@ import org.jetbrains.annotations.NotNull;
 import org.springframework.aop.framework.AopContext;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ApplicationContext;
@@ -79,6 +80,16 @@ public final class SpringUtil implements BeanFactoryPostProcessor, ApplicationCo
         return beanFactory.getBean(clazz);
     }
 
+    /**
+     * 根据Bean类型获取Bean的提供者，用于获取可能不存在的Bean
+     *
+     * @param clazz Bean类型
+     * @return Bean的提供者
+     */
+    public static <T> @NotNull ObjectProvider<T> getBeanProvider(Class<T> clazz) {
+        return beanFactory.getBeanProvider(clazz);
+    }
+
     /**
      * 判断是否存在指定名称的Bean
      *
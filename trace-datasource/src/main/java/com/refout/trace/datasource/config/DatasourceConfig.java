@@ -0,0 +1,19 @@
+package com.refout.trace.datasource.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 数据源配置
+ * <p>
+ * 开启定时任务，用于雪花算法datacenterId和workerId的租约续约
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 17:20
+ */
+@Configuration
+@EnableScheduling
+public class DatasourceConfig {
+
+}
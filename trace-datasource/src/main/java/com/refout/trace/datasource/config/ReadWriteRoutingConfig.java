@@ -0,0 +1,90 @@
+package com.refout.trace.datasource.config;
+
+import com.refout.trace.datasource.handler.routing.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 读写分离数据源配置
+ * <p>
+ * 开启{@code trace.datasource.routing.enabled}后，只读事务（包括Repository的查询方法）路由到从库，
+ * 其余访问路由到主库，见{@link ReadWriteRoutingDataSource}
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:00
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "trace.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadWriteRoutingProperties.class)
+public class ReadWriteRoutingConfig {
+
+    /**
+     * 主库连接池，使用{@code spring.datasource}的配置
+     *
+     * @param properties 数据源配置
+     * @return 主库连接池
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@NotNull DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * 读写分离的路由数据源
+     *
+     * @param primaryDataSource    主库连接池
+     * @param dataSourceProperties 数据源配置
+     * @param properties           读写分离配置
+     * @return 路由数据源
+     */
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 DataSourceProperties dataSourceProperties,
+                                                                 @NotNull ReadWriteRoutingProperties properties) {
+        List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (ReadWriteRoutingProperties.Replica replica : properties.getReplicas()) {
+            String name = "replica-" + replicas.size();
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(Objects.requireNonNullElse(replica.getUsername(), dataSourceProperties.determineUsername()))
+                    .password(Objects.requireNonNullElse(replica.getPassword(), dataSourceProperties.determinePassword()))
+                    .build();
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replicas.add(new ReadWriteRoutingDataSource.Replica(name, dataSource));
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas,
+                properties.getLagQuery(), properties.getMaxLagSeconds());
+    }
+
+    /**
+     * 应用使用的数据源，推迟获取物理连接，使路由时事务的只读标记已经设置
+     *
+     * @param readWriteRoutingDataSource 路由数据源
+     * @return 数据源
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.refout.trace.datasource.config;
+
+import com.refout.trace.datasource.handler.routing.ReadWriteRoutingDataSource;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:55
+ */
+@Data
+@ConfigurationProperties(prefix = "trace.datasource.routing")
+public class ReadWriteRoutingProperties {
+
+    /**
+     * 是否开启读写分离，主库使用{@code spring.datasource}的配置
+     */
+    private boolean enabled;
+
+    /**
+     * 查询从库复制延迟（秒）的SQL，为空时读取{@code SHOW REPLICA STATUS}的{@code Seconds_Behind_Source}
+     */
+    private String lagQuery = ReadWriteRoutingDataSource.SHOW_REPLICA_STATUS;
+
+    /**
+     * 从库允许的最大复制延迟（秒），超过时路由到其他从库或主库
+     */
+    private long maxLagSeconds = 5;
+
+    /**
+     * 检查从库复制延迟的间隔（毫秒）
+     */
+    private long lagCheckMillis = 5000;
+
+    /**
+     * 从库
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * 从库配置，用户名、密码为空时与主库一致
+     */
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+    }
+
+}
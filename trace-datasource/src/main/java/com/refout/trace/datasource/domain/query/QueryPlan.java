@@ -0,0 +1,172 @@
+package com.refout.trace.datasource.domain.query;
+
+import com.refout.trace.datasource.annotation.Deleted;
+import com.refout.trace.datasource.annotation.Query;
+import com.refout.trace.datasource.enums.QueryFunc;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Transient;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.refout.trace.datasource.enums.QueryFunc.LIKE;
+
+/**
+ * 实体类的查询计划
+ *
+ * <p>
+ * 每个实体类只编译一次：遍历字段、读取注解（{@link Transient}、{@link Deleted}、{@link Convert}、{@link Query}）、
+ * 实例化{@link AttributeConverter}，得到不可变的字段列表。
+ * 每次查询只需要按字段列表读取非空值并构建谓词，逻辑删除字段忽略条件中的值，总是只查询未删除的数据。
+ * 构建谓词不修改查询条件，同一条件可以在多个线程中同时使用。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:30
+ */
+public final class QueryPlan {
+
+    /**
+     * 实体类对应的查询计划
+     */
+    private static final ClassValue<QueryPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected QueryPlan computeValue(@NotNull Class<?> type) {
+            return new QueryPlan(type);
+        }
+    };
+
+    /**
+     * 参与查询的字段
+     */
+    private final List<FieldPlan> fields;
+
+    private QueryPlan(Class<?> clazz) {
+        List<FieldPlan> list = new ArrayList<>();
+        ReflectionUtils.doWithFields(clazz, field -> {
+            field.setAccessible(true);
+            Query query = field.getDeclaredAnnotation(Query.class);
+            list.add(new FieldPlan(
+                    field,
+                    query == null ? LIKE : query.value(),
+                    converter(field.getDeclaredAnnotation(Convert.class)),
+                    field.isAnnotationPresent(Deleted.class)
+            ));
+        }, field -> !Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(Transient.class));
+        this.fields = List.copyOf(list);
+    }
+
+    /**
+     * 获取实体类的查询计划
+     *
+     * @param clazz 实体类
+     * @return 查询计划
+     */
+    public static QueryPlan of(@NotNull Class<?> clazz) {
+        return PLANS.get(clazz);
+    }
+
+    /**
+     * 根据实体对象中的非空字段构建谓词
+     *
+     * @param data            实体对象
+     * @param root            根对象
+     * @param criteriaBuilder 谓词构建器
+     * @param predicates      谓词列表，构建的谓词追加到该列表中
+     */
+    public void predicates(
+            @NotNull Object data, Root<?> root, CriteriaBuilder criteriaBuilder, List<Predicate> predicates) {
+        for (FieldPlan plan : fields) {
+            Field field = plan.field();
+            if (plan.deleted()) {
+                predicates.add(criteriaBuilder.equal(root.get(field.getName()), false));
+                continue;
+            }
+            Object value = ReflectionUtils.getField(field, data);
+            if (value == null) {
+                continue;
+            }
+            if (plan.converter() != null) {
+                try {
+                    value = plan.converter().convertToDatabaseColumn(value);
+                } catch (RuntimeException ignore) {
+                    // 转换失败时使用原值查询
+                }
+            }
+            predicates.add(predicate(criteriaBuilder, root.get(field.getName()), plan.func(), value));
+        }
+    }
+
+    /**
+     * 获取参与查询的字段数
+     *
+     * @return 字段数
+     */
+    public int size() {
+        return fields.size();
+    }
+
+    /**
+     * 根据查询方式和字段值构建查询条件
+     *
+     * @param criteriaBuilder CriteriaBuilder对象
+     * @param expression      查询表达式
+     * @param func            查询方式
+     * @param value           字段值
+     * @return 构建的查询条件
+     */
+    private static Predicate predicate(
+            CriteriaBuilder criteriaBuilder, Expression<String> expression, QueryFunc func, Object value) {
+        return switch (func) {
+            case LIKE -> criteriaBuilder.like(expression, "%" + value + "%");
+            case LEFT_LIKE -> criteriaBuilder.like(expression, "%" + value);
+            case RIGHT_LIKE -> criteriaBuilder.like(expression, value + "%");
+            case NOT_LIKE -> criteriaBuilder.notLike(expression, "%" + value + "%");
+            case EQ -> criteriaBuilder.equal(expression, value);
+            case NOT_EQ -> criteriaBuilder.notEqual(expression, value);
+        };
+    }
+
+    /**
+     * 实例化字段上的转换器，转换器是无状态的，所有查询共用一个实例
+     *
+     * @param convert Convert注解
+     * @return 转换器，没有注解或无法实例化时返回null
+     */
+    private static @Nullable AttributeConverter<Object, Object> converter(@Nullable Convert convert) {
+        if (convert == null) {
+            return null;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            Class<? extends AttributeConverter<Object, Object>> converter = convert.converter();
+            return converter.getDeclaredConstructor().newInstance();
+        } catch (Exception ignore) {
+            return null;
+        }
+    }
+
+    /**
+     * 字段的查询计划
+     *
+     * @param field     字段
+     * @param func      查询方式
+     * @param converter 转换器，可以为null
+     * @param deleted   是否为逻辑删除字段
+     */
+    private record FieldPlan(
+            Field field, QueryFunc func, @Nullable AttributeConverter<Object, Object> converter, boolean deleted) {
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.refout.trace.datasource.domain.query.page;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.refout.trace.common.util.JsonUtil;
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * keyset分页游标
+ *
+ * <p>
+ * 游标是上一页最后一条记录的排序键，序列化为JSON后经过Base64URL编码，对客户端不透明。
+ * 解码时按实体类的字段类型还原排序键，并校验排序键与本次查询的排序一致。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:55
+ */
+public final class KeysetCursor {
+
+    private static final TypeReference<LinkedHashMap<String, JsonNode>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * 将滚动位置编码为游标
+     *
+     * @param position 滚动位置
+     * @return 游标
+     */
+    public static @NotNull String encode(@NotNull KeysetScrollPosition position) {
+        String json = JsonUtil.toJson(position.getKeys());
+        if (json == null) {
+            throw new DatasourceException("分页游标编码失败");
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 将游标解码为滚动位置，游标为空时返回第一页的位置
+     *
+     * @param cursor      游标
+     * @param entityClass 实体类
+     * @param sort        本次查询的排序
+     * @return 滚动位置
+     * @throws DatasourceException 当游标无效或与排序不一致时抛出异常
+     */
+    public static @NotNull KeysetScrollPosition decode(String cursor, @NotNull Class<?> entityClass, @NotNull Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, JsonNode> nodes;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor);
+            nodes = JsonUtil.mapper.readValue(json, KEYS_TYPE);
+        } catch (Exception e) {
+            throw new DatasourceException("分页游标无效", e);
+        }
+        if (nodes == null || nodes.size() != sort.stream().count()) {
+            throw new DatasourceException("分页游标与排序不一致");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            JsonNode node = nodes.get(order.getProperty());
+            Field field = ReflectionUtils.findField(entityClass, order.getProperty());
+            if (node == null || field == null) {
+                throw new DatasourceException("分页游标与排序不一致");
+            }
+            try {
+                keys.put(order.getProperty(), JsonUtil.mapper.treeToValue(node, field.getType()));
+            } catch (Exception e) {
+                throw new DatasourceException("分页游标无效", e);
+            }
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+}
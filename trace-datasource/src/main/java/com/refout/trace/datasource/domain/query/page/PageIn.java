@@ -1,27 +1,80 @@
 package com.refout.trace.datasource.domain.query.page;
 
 import com.refout.trace.datasource.domain.query.QueryRequest;
+import com.refout.trace.datasource.enums.CountMode;
+import com.refout.trace.datasource.enums.PageMode;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 分页查询输入类，用于指定分页查询的参数。
  *
- * @param page    页码
+ * @param page    页码，keyset模式下忽略
  * @param size    每页大小
  * @param orderBy 排序
  * @param query   查询条件
+ * @param mode    分页模式，为空时按offset分页
+ * @param cursor  keyset模式下上一页返回的游标，为空时查询第一页
+ * @param count   总数模式，为空时查询精确总数，keyset模式下忽略
+ * @param fields  需要返回的字段，为空时返回完整的实体对象，不为空时只查询这些字段（以及id）并以Map返回
  * @param <Q>     查询条件的类型
  * @author oo w
  * @version 1.0
  * @since 2023/8/12 23:37
  */
-public record PageIn<D, Q extends QueryRequest<D>>(int page, int size, List<OrderBy> orderBy, Q query) {
+public record PageIn<D, Q extends QueryRequest<D>>(
+        int page, int size, List<OrderBy> orderBy, Q query, PageMode mode, String cursor, CountMode count,
+        List<String> fields) {
+
+    /**
+     * keyset模式下作为最后一个排序键的唯一属性
+     */
+    public static final String KEYSET_ID = "id";
+
+    /**
+     * 构造offset模式的分页查询输入
+     *
+     * @param page    页码
+     * @param size    每页大小
+     * @param orderBy 排序
+     * @param query   查询条件
+     */
+    public PageIn(int page, int size, List<OrderBy> orderBy, Q query) {
+        this(page, size, orderBy, query, PageMode.OFFSET, null, CountMode.EXACT, null);
+    }
+
+    /**
+     * 是否为keyset模式
+     *
+     * @return keyset模式时返回true
+     */
+    public boolean keyset() {
+        return mode == PageMode.KEYSET;
+    }
+
+    /**
+     * 是否只查询部分字段
+     *
+     * @return 指定了需要返回的字段时返回true
+     */
+    public boolean projection() {
+        return fields != null && !fields.isEmpty();
+    }
+
+    /**
+     * 获取总数模式
+     *
+     * @return 总数模式，未指定时为精确总数
+     */
+    public @NotNull CountMode countMode() {
+        return count == null ? CountMode.EXACT : count;
+    }
 
     /**
      * 获取分页查询的Pageable对象。
@@ -44,4 +97,31 @@ public record PageIn<D, Q extends QueryRequest<D>>(int page, int size, List<Orde
         return PageRequest.of(dbPage, size, Sort.by(list));
     }
 
+    /**
+     * 获取keyset模式的排序，以Snowflake ID作为最后一个排序键保证顺序唯一，
+     * ID的排序方向与最后一个排序键一致，没有指定排序时按ID倒序（新数据在前）
+     *
+     * @return keyset模式的排序
+     */
+    public @NotNull Sort keysetSort() {
+        List<Sort.Order> list = new ArrayList<>();
+        Sort.Direction direction = Sort.Direction.DESC;
+        if (orderBy != null) {
+            for (OrderBy it : orderBy) {
+                if (KEYSET_ID.equals(it.property())) {
+                    continue;
+                }
+                direction = it.direction() == null ? Sort.DEFAULT_DIRECTION : it.direction();
+                list.add(new Sort.Order(direction, it.property()));
+            }
+            direction = orderBy.stream()
+                    .filter(it -> KEYSET_ID.equals(it.property()) && it.direction() != null)
+                    .map(OrderBy::direction)
+                    .findFirst()
+                    .orElse(direction);
+        }
+        list.add(new Sort.Order(direction, KEYSET_ID));
+        return Sort.by(list);
+    }
+
 }
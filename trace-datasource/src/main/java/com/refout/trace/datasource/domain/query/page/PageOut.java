@@ -1,7 +1,9 @@
 package com.refout.trace.datasource.domain.query.page;
 
+import com.refout.trace.datasource.enums.CountMode;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -10,15 +12,24 @@ import java.util.Collection;
  *
  * @param <T>       数据类型
  * @param data      数据集合
- * @param page      当前页码
+ * @param page      当前页码，keyset模式下为-1
  * @param size      每页大小
- * @param total     总记录数
- * @param totalPage 总页数
+ * @param total     总记录数，不查询总数时为-1
+ * @param totalPage 总页数，不查询总数时为-1
+ * @param cursor    keyset模式下查询下一页的游标，没有下一页或offset模式下为null
+ * @param countMode 总记录数的来源
+ * @param hasNext   是否有下一页
  * @author oo w
  * @version 1.0
  * @since 2023/8/12 10:09
  */
-public record PageOut<T>(Collection<T> data, int page, int size, long total, int totalPage) {
+public record PageOut<T>(Collection<T> data, int page, int size, long total, int totalPage, String cursor,
+                         CountMode countMode, boolean hasNext) {
+
+    /**
+     * 未知的总记录数和总页数
+     */
+    public static final int UNKNOWN = -1;
 
     /**
      * 创建页面输出记录
@@ -33,7 +44,53 @@ public record PageOut<T>(Collection<T> data, int page, int size, long total, int
      */
     @Contract("_, _, _, _, _ -> new")
     public static <T> @NotNull PageOut<T> of(Collection<T> data, int page, int size, long total, int totalPage) {
-        return new PageOut<>(data, page + 1, size, total, totalPage);
+        return new PageOut<>(data, page + 1, size, total, totalPage, null, CountMode.EXACT, page + 1 < totalPage);
+    }
+
+    /**
+     * 创建不查询总数的页面输出记录
+     *
+     * @param data    数据集合
+     * @param page    当前页码
+     * @param size    每页大小
+     * @param hasNext 是否有下一页
+     * @param <T>     数据类型
+     * @return 页面输出记录
+     */
+    @Contract("_, _, _, _ -> new")
+    public static <T> @NotNull PageOut<T> slice(Collection<T> data, int page, int size, boolean hasNext) {
+        return new PageOut<>(data, page + 1, size, UNKNOWN, UNKNOWN, null, CountMode.NONE, hasNext);
+    }
+
+    /**
+     * 创建总数为估算值的页面输出记录
+     *
+     * @param data    数据集合
+     * @param page    当前页码
+     * @param size    每页大小
+     * @param total   估算的总记录数
+     * @param hasNext 是否有下一页
+     * @param <T>     数据类型
+     * @return 页面输出记录
+     */
+    @Contract("_, _, _, _, _ -> new")
+    public static <T> @NotNull PageOut<T> estimated(Collection<T> data, int page, int size, long total, boolean hasNext) {
+        int totalPage = size == 0 ? 1 : (int) Math.ceil((double) total / size);
+        return new PageOut<>(data, page + 1, size, total, totalPage, null, CountMode.ESTIMATED, hasNext);
+    }
+
+    /**
+     * 创建keyset模式的页面输出记录
+     *
+     * @param data   数据集合
+     * @param size   每页大小
+     * @param cursor 查询下一页的游标，没有下一页时为null
+     * @param <T>    数据类型
+     * @return 页面输出记录
+     */
+    @Contract("_, _, _ -> new")
+    public static <T> @NotNull PageOut<T> keyset(Collection<T> data, int size, @Nullable String cursor) {
+        return new PageOut<>(data, UNKNOWN, size, UNKNOWN, UNKNOWN, cursor, CountMode.NONE, cursor != null);
     }
 
-}
\ No newline at end of file
+}
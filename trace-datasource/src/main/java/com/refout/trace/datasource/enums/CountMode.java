@@ -0,0 +1,27 @@
+package com.refout.trace.datasource.enums;
+
+/**
+ * 总数模式枚举，用于指定分页查询如何获取总记录数。
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:10
+ */
+public enum CountMode {
+
+    /**
+     * 每次查询都执行COUNT，总数精确
+     */
+    EXACT,
+
+    /**
+     * 不查询总数，只返回是否有下一页
+     */
+    NONE,
+
+    /**
+     * 使用短时间缓存的总数，缓存过期前数据的增删不会反映到总数上
+     */
+    ESTIMATED
+
+}
@@ -0,0 +1,22 @@
+package com.refout.trace.datasource.enums;
+
+/**
+ * 分页模式枚举，用于指定分页查询的方式。
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:50
+ */
+public enum PageMode {
+
+    /**
+     * 按页码和偏移量分页，页码越大越慢
+     */
+    OFFSET,
+
+    /**
+     * 按上一页最后一条记录的排序键定位下一页，任意深度的耗时只与每页大小有关，不支持跳页
+     */
+    KEYSET
+
+}
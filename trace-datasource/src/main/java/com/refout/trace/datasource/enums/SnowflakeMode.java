@@ -0,0 +1,78 @@
+package com.refout.trace.datasource.enums;
+
+import com.refout.trace.datasource.handler.snowflake.ClockBackwardsPolicy;
+import com.refout.trace.datasource.handler.snowflake.LockFreeSnowflake;
+import com.refout.trace.datasource.handler.snowflake.Snowflake;
+import com.refout.trace.datasource.handler.snowflake.StripedSnowflake;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Snowflake生成器模式枚举，用于选择ID生成器的实现。
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 10:20
+ */
+public enum SnowflakeMode {
+
+    /**
+     * synchronized实现
+     */
+    SYNCHRONIZED,
+
+    /**
+     * 基于CAS的无锁实现
+     */
+    LOCK_FREE,
+
+    /**
+     * 按线程分道的无锁实现，适用于多核下的高并发插入
+     */
+    STRIPED;
+
+    /**
+     * 创建对应模式的Snowflake生成器
+     *
+     * @param datacenterId 数据中心ID，取值范围为0-31
+     * @param workerId     机器ID，取值范围为0-31
+     * @return Snowflake生成器
+     */
+    @Contract("_, _ -> new")
+    public @NotNull Snowflake create(long datacenterId, long workerId) {
+        return create(datacenterId, workerId, ClockBackwardsPolicy.STRICT);
+    }
+
+    /**
+     * 创建对应模式的Snowflake生成器
+     *
+     * @param datacenterId         数据中心ID，取值范围为0-31
+     * @param workerId             机器ID，取值范围为0-31
+     * @param clockBackwardsPolicy 时钟回退处理策略
+     * @return Snowflake生成器
+     */
+    @Contract("_, _, _ -> new")
+    public @NotNull Snowflake create(long datacenterId, long workerId, ClockBackwardsPolicy clockBackwardsPolicy) {
+        return create(datacenterId, workerId, clockBackwardsPolicy, StripedSnowflake.DEFAULT_STRIPES);
+    }
+
+    /**
+     * 创建对应模式的Snowflake生成器
+     *
+     * @param datacenterId         数据中心ID，取值范围为0-31
+     * @param workerId             机器ID，取值范围为0-31
+     * @param clockBackwardsPolicy 时钟回退处理策略
+     * @param stripes              分道数，仅{@link #STRIPED}模式使用
+     * @return Snowflake生成器
+     */
+    @Contract("_, _, _, _ -> new")
+    public @NotNull Snowflake create(long datacenterId, long workerId,
+                                     ClockBackwardsPolicy clockBackwardsPolicy, int stripes) {
+        return switch (this) {
+            case SYNCHRONIZED -> new Snowflake(datacenterId, workerId, clockBackwardsPolicy);
+            case LOCK_FREE -> new LockFreeSnowflake(datacenterId, workerId, clockBackwardsPolicy);
+            case STRIPED -> new StripedSnowflake(datacenterId, workerId, clockBackwardsPolicy, stripes);
+        };
+    }
+
+}
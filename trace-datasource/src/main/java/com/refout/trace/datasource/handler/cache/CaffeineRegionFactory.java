@@ -0,0 +1,98 @@
+package com.refout.trace.datasource.handler.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.jetbrains.annotations.NotNull;
+
+import javax.cache.Cache;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * 基于Caffeine的Hibernate二级缓存区域工厂
+ *
+ * <p>
+ * 实体只有同时标注{@link jakarta.persistence.Cacheable}和{@link org.hibernate.annotations.Cache}才会进入二级缓存
+ * （{@code jakarta.persistence.sharedCache.mode: ENABLE_SELECTIVE}）。<br/>
+ * 缓存区域由本工厂按需创建：缓存的是Hibernate拆解后的不可变状态，按引用存储，不做序列化拷贝；
+ * 实体和查询结果区域按{@link #MAXIMUM_SIZE}限制条目数、按{@link #EXPIRE_AFTER_WRITE}过期，
+ * 作为多节点失效通知丢失时的兜底；更新时间戳区域既不淘汰也不过期，否则查询缓存会把过期的结果当作有效。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:05
+ */
+public class CaffeineRegionFactory extends JCacheRegionFactory {
+
+    /**
+     * 实体和查询结果区域的最大条目数配置项
+     */
+    public static final String MAXIMUM_SIZE = "hibernate.cache.caffeine.maximum_size";
+
+    /**
+     * 实体和查询结果区域写入后的过期时间（秒）配置项
+     */
+    public static final String EXPIRE_AFTER_WRITE = "hibernate.cache.caffeine.expire_after_write";
+
+    /**
+     * 默认最大条目数
+     */
+    static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    /**
+     * 默认写入后过期时间
+     */
+    static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    /**
+     * 最大条目数
+     */
+    private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * 写入后过期时间
+     */
+    private Duration expireAfterWrite = DEFAULT_EXPIRE_AFTER_WRITE;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object size = configValues.get(MAXIMUM_SIZE);
+        if (size != null) {
+            maximumSize = Long.parseLong(size.toString());
+        }
+        Object expire = configValues.get(EXPIRE_AFTER_WRITE);
+        if (expire != null) {
+            expireAfterWrite = Duration.ofSeconds(Long.parseLong(expire.toString()));
+        }
+        super.prepareForUse(settings, configValues);
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        return getCacheManager().createCache(regionName, configuration(regionName, maximumSize, expireAfterWrite));
+    }
+
+    /**
+     * 缓存区域的配置
+     *
+     * @param regionName       区域名称
+     * @param maximumSize      最大条目数
+     * @param expireAfterWrite 写入后过期时间
+     * @return 缓存区域的配置
+     */
+    static @NotNull CaffeineConfiguration<Object, Object> configuration(@NotNull String regionName, long maximumSize,
+                                                                       Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        if (!regionName.endsWith(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME)) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        }
+        return configuration;
+    }
+
+}
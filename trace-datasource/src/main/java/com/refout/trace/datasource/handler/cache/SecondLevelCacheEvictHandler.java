@@ -0,0 +1,202 @@
+package com.refout.trace.datasource.handler.cache;
+
+import com.refout.trace.common.util.JsonUtil;
+import com.refout.trace.common.util.RandomUtil;
+import com.refout.trace.redis.constant.CacheKeyRule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 二级缓存多节点失效处理器
+ *
+ * <p>
+ * 二级缓存是节点本地的，一个节点写入后其他节点的缓存需要失效：<br/>
+ * 缓存实体提交后的新增、更新、删除事件以及{@link #publish(Class, Collection)}登记的批量更新，
+ * 在事务提交后发布到redis频道{@code HIBERNATE:CACHE:EVICT}；<br/>
+ * 其他节点收到后清除对应ID的实体缓存（ID为空时清除整个实体区域）以及查询缓存，本节点发布的消息忽略。<br/>
+ * 通知丢失时由{@link CaffeineRegionFactory}的过期时间兜底。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:20
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheEvictHandler implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, MessageListener {
+
+    /**
+     * 失效通知频道
+     */
+    public static final String CHANNEL = CacheKeyRule.key("HIBERNATE", "CACHE", "EVICT");
+
+    /**
+     * 当前节点标识
+     */
+    private final String node = RandomUtil.randomUUID();
+
+    @Resource
+    private EntityManagerFactory entityManagerFactory;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    /**
+     * 开启二级缓存时注册提交后事件监听并订阅失效通知
+     */
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return;
+        }
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        if (registry != null) {
+            registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+            registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+            registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        }
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 在当前事务提交后发布实体的失效通知，不在事务中时立即发布；实体未开启二级缓存时忽略
+     *
+     * @param domainClass 实体类
+     * @param ids         失效的ID，为空时失效整个实体区域
+     */
+    public void publish(Class<?> domainClass, @Nullable Collection<?> ids) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(domainClass);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EvictMessage message = new EvictMessage(node, persister.getEntityName(), ids == null ? null : List.copyOf(ids));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(message);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(@NotNull PostInsertEvent event) {
+        // 新增的实体不在其他节点的实体缓存中，只需失效查询缓存
+        send(new EvictMessage(node, event.getPersister().getEntityName(), List.of()));
+    }
+
+    @Override
+    public void onPostUpdate(@NotNull PostUpdateEvent event) {
+        send(new EvictMessage(node, event.getPersister().getEntityName(), List.of(event.getId())));
+    }
+
+    @Override
+    public void onPostDelete(@NotNull PostDeleteEvent event) {
+        send(new EvictMessage(node, event.getPersister().getEntityName(), List.of(event.getId())));
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(@NotNull EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onMessage(@NotNull Message message, byte[] pattern) {
+        EvictMessage evict;
+        try {
+            evict = JsonUtil.fromJson(new String(message.getBody(), StandardCharsets.UTF_8), EvictMessage.class);
+        } catch (Exception e) {
+            log.error("二级缓存失效通知解析失败", e);
+            return;
+        }
+        if (evict == null || node.equals(evict.node())) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        if (evict.ids() == null) {
+            cache.evictEntityData(evict.entity());
+        } else if (!evict.ids().isEmpty()) {
+            Class<?> idClass = sessionFactory.getMappingMetamodel().getEntityDescriptor(evict.entity())
+                    .getIdentifierType().getReturnedClass();
+            evict.ids().forEach(id ->
+                    cache.evictEntityData(evict.entity(), DefaultConversionService.getSharedInstance().convert(id, idClass))
+            );
+        }
+        cache.evictQueryRegions();
+    }
+
+    /**
+     * 发布失效通知，发布失败只记录日志，由缓存过期兜底
+     *
+     * @param message 失效通知
+     */
+    private void send(EvictMessage message) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, JsonUtil.toJson(message));
+        } catch (Exception e) {
+            log.error("二级缓存失效通知发布失败：{}", message, e);
+        }
+    }
+
+    /**
+     * 失效通知
+     *
+     * @param node   发布节点标识
+     * @param entity 实体名称
+     * @param ids    失效的ID，为空列表时只失效查询缓存，为null时失效整个实体区域
+     */
+    record EvictMessage(String node, String entity, List<Object> ids) {
+
+    }
+
+}
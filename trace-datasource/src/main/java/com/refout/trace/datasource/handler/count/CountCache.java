@@ -0,0 +1,112 @@
+package com.refout.trace.datasource.handler.count;
+
+import com.refout.trace.common.util.JsonUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 分页查询总数的短时间缓存
+ *
+ * <p>
+ * 以实体类和序列化后的查询条件作为键，缓存{@link #TTL_MILLIS}毫秒，
+ * 相同条件的翻页请求只在缓存过期后重新执行COUNT。
+ * 缓存条目超过{@link #MAX_ENTRIES}时先清理过期条目，仍然超出时清空。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:15
+ */
+public final class CountCache {
+
+    /**
+     * 缓存时间
+     */
+    public static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 最大缓存条目数
+     */
+    public static final int MAX_ENTRIES = 1024;
+
+    /**
+     * 缓存的总数
+     */
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private CountCache() {
+    }
+
+    /**
+     * 获取缓存的总数，没有缓存或缓存过期时执行COUNT并缓存
+     *
+     * @param key     缓存键，见{@link #key(Class, Object)}
+     * @param counter 执行COUNT的函数
+     * @return 总数
+     */
+    public static long get(@NotNull String key, @NotNull LongSupplier counter) {
+        long now = System.currentTimeMillis();
+        Entry entry = CACHE.get(key);
+        if (entry != null && entry.expireAt() > now) {
+            return entry.count();
+        }
+        long count = counter.getAsLong();
+        put(key, count, now);
+        return count;
+    }
+
+    /**
+     * 用精确的总数更新缓存，例如查询到最后一页时
+     *
+     * @param key   缓存键，见{@link #key(Class, Object)}
+     * @param count 总数
+     */
+    public static void put(@NotNull String key, long count) {
+        put(key, count, System.currentTimeMillis());
+    }
+
+    /**
+     * 清除实体类的缓存，用于批量增删后立即刷新总数
+     *
+     * @param entityClass 实体类
+     */
+    public static void evict(@NotNull Class<?> entityClass) {
+        String prefix = entityClass.getName() + ":";
+        CACHE.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static void put(String key, long count, long now) {
+        if (CACHE.size() >= MAX_ENTRIES) {
+            CACHE.values().removeIf(it -> it.expireAt() <= now);
+            if (CACHE.size() >= MAX_ENTRIES) {
+                CACHE.clear();
+            }
+        }
+        CACHE.put(key, new Entry(count, now + TTL_MILLIS));
+    }
+
+    /**
+     * 生成缓存键，需要在查询执行之前生成，避免查询条件在构建谓词时被修改
+     *
+     * @param entityClass 实体类
+     * @param condition   查询条件
+     * @return 缓存键
+     */
+    public static @NotNull String key(@NotNull Class<?> entityClass, Object condition) {
+        return entityClass.getName() + ":" + JsonUtil.toJson(condition);
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param count    总数
+     * @param expireAt 过期时间
+     */
+    private record Entry(long count, long expireAt) {
+    }
+
+}
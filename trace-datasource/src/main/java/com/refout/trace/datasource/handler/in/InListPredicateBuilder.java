@@ -0,0 +1,249 @@
+package com.refout.trace.datasource.handler.in;
+
+import com.refout.trace.common.util.ConvertUtil;
+import com.refout.trace.datasource.domain.query.condition.In;
+import com.refout.trace.datasource.exception.DatasourceException;
+import jakarta.annotation.Resource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 包含条件的谓词构建器
+ *
+ * <p>
+ * 按去重后值的数量选择{@link InListStrategy}：<br/>
+ * 不超过{@code trace.query.in.inline-max}时原样生成；<br/>
+ * 不超过{@code trace.query.in.padded-max}时参数数量补齐到2的幂，使语句缓存和执行计划可以复用；<br/>
+ * 更多时写入会话临时表，以子查询连接，SQL长度与值的数量无关。<br/>
+ * 临时表属于连接，写入与查询需要使用同一个连接，因此只在事务中使用（Spring Data的查询方法都在事务中执行），
+ * 每次生成谓词时重新写入，同一连接后续的查询会覆盖；不在事务中、字段类型不支持、字符串超过
+ * {@link #STRING_COLUMN_LENGTH}或临时表超过{@link InTempTableFunctionContributor#MAX_TEMP_TABLES}个时按补齐分块生成。
+ * 临时表的建表和删表语句取自Hibernate方言。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 21:10
+ */
+@Slf4j
+@Component
+public class InListPredicateBuilder {
+
+    /**
+     * 每条插入语句写入临时表的行数
+     */
+    public static final int LOAD_CHUNK_SIZE = 1000;
+
+    /**
+     * 临时表字符串值列的长度
+     */
+    public static final int STRING_COLUMN_LENGTH = 1024;
+
+    /**
+     * 实体管理器，事务中为事务绑定的实体管理器
+     */
+    @Resource
+    private EntityManager entityManager;
+
+    /**
+     * 原样生成的最大数量
+     */
+    @Value("${trace.query.in.inline-max:64}")
+    private int inlineMax;
+
+    /**
+     * 补齐的最大数量，应为2的幂
+     */
+    @Value("${trace.query.in.padded-max:1024}")
+    private int paddedMax;
+
+    /**
+     * 生成包含条件的谓词，写入需要的临时表
+     *
+     * @param criteriaBuilder 谓词构建器
+     * @param root            根对象
+     * @param ins             包含条件
+     * @return 谓词列表
+     */
+    public @NotNull List<Predicate> predicates(CriteriaBuilder criteriaBuilder, Root<?> root,
+                                               @NotNull List<In> ins) {
+        List<Predicate> predicates = new ArrayList<>(ins.size());
+        int slot = 0;
+        for (In in : ins) {
+            Path<Object> path = root.get(in.getColumnName());
+            Collection<Object> values = in.getIn();
+            if (values == null || values.isEmpty()) {
+                predicates.add(path.in(values));
+                continue;
+            }
+            List<Object> distinct = List.copyOf(new LinkedHashSet<>(values));
+            String columnType = columnType(path.getJavaType());
+            boolean tempTableAvailable = columnType != null && fitsColumn(distinct)
+                    && slot < InTempTableFunctionContributor.MAX_TEMP_TABLES
+                    && TransactionSynchronizationManager.isActualTransactionActive();
+            switch (InListStrategy.of(distinct.size(), inlineMax, paddedMax, tempTableAvailable)) {
+                case INLINE -> predicates.add(path.in(distinct));
+                case PADDED -> predicates.add(padded(criteriaBuilder, path, distinct));
+                case TEMP_TABLE -> {
+                    load(InTempTableFunctionContributor.table(slot), columnType, path.getJavaType(), distinct);
+                    Expression<Boolean> contains = criteriaBuilder.function(
+                            InTempTableFunctionContributor.function(slot), Boolean.class, path);
+                    predicates.add(criteriaBuilder.isTrue(contains));
+                    slot++;
+                }
+            }
+        }
+        return predicates;
+    }
+
+    /**
+     * 按补齐上限分块，每块补齐到2的幂后以{@code or}连接
+     *
+     * @param criteriaBuilder 谓词构建器
+     * @param path            字段
+     * @param values          去重后的值
+     * @return 谓词
+     */
+    private Predicate padded(CriteriaBuilder criteriaBuilder, Path<Object> path, @NotNull List<Object> values) {
+        if (values.size() <= paddedMax) {
+            return path.in(pad(values, paddedMax));
+        }
+        List<Predicate> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += paddedMax) {
+            chunks.add(path.in(pad(values.subList(from, Math.min(from + paddedMax, values.size())), paddedMax)));
+        }
+        return criteriaBuilder.or(chunks.toArray(new Predicate[0]));
+    }
+
+    /**
+     * 重复最后一个值，将数量补齐到2的幂，不超过上限
+     *
+     * @param values 值
+     * @param max    补齐的上限
+     * @return 补齐后的值
+     */
+    static @NotNull List<Object> pad(@NotNull List<Object> values, int max) {
+        int size = values.size();
+        int padded = size <= 1 ? size : Math.min(Integer.highestOneBit(size - 1) << 1, Math.max(max, size));
+        if (padded == size) {
+            return values;
+        }
+        List<Object> result = new ArrayList<>(padded);
+        result.addAll(values);
+        Object last = values.getLast();
+        while (result.size() < padded) {
+            result.add(last);
+        }
+        return result;
+    }
+
+    /**
+     * 临时表值列的类型
+     *
+     * @param javaType 字段类型
+     * @return 列类型，不支持的字段类型返回null
+     */
+    static @Nullable String columnType(Class<?> javaType) {
+        if (javaType == Long.class || javaType == long.class || javaType == Integer.class || javaType == int.class
+                || javaType == Short.class || javaType == short.class) {
+            return "bigint";
+        }
+        if (javaType == String.class) {
+            return "varchar(" + STRING_COLUMN_LENGTH + ")";
+        }
+        return null;
+    }
+
+    /**
+     * 值是否都能写入临时表的值列，字符串不超过{@link #STRING_COLUMN_LENGTH}
+     *
+     * @param values 去重后的值
+     * @return 都能写入返回true
+     */
+    static boolean fitsColumn(@NotNull List<Object> values) {
+        for (Object value : values) {
+            if (value instanceof CharSequence text && text.length() > STRING_COLUMN_LENGTH) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 在当前事务的连接上创建临时表并写入值
+     *
+     * @param table      临时表名
+     * @param columnType 值列的类型
+     * @param javaType   字段类型
+     * @param values     去重后的值
+     */
+    private void load(String table, String columnType, Class<?> javaType, List<Object> values) {
+        Class<?> valueType = javaType == String.class ? String.class : Long.class;
+        Set<Object> converted = new LinkedHashSet<>(values.size());
+        for (Object value : values) {
+            Object convertedValue = ConvertUtil.convert(value, null, valueType);
+            if (convertedValue == null) {
+                throw new DatasourceException("包含条件的值类型错误：" + value);
+            }
+            converted.add(convertedValue);
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Dialect dialect = session.getJdbcServices().getDialect();
+        session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(dialect.getTemporaryTableDropCommand() + " if exists " + table);
+                statement.execute(dialect.getTemporaryTableCreateCommand() + " " + table + " ("
+                        + InTempTableFunctionContributor.VALUE_COLUMN + " " + columnType + " not null)");
+            }
+            insert(connection, table, List.copyOf(converted));
+        });
+        log.debug("包含条件写入临时表{}：{}个值", table, converted.size());
+    }
+
+    /**
+     * 多行插入写入临时表
+     *
+     * @param connection 连接
+     * @param table      临时表名
+     * @param values     值
+     * @throws SQLException 写入失败时抛出异常
+     */
+    private static void insert(Connection connection, String table, @NotNull List<Object> values)
+            throws SQLException {
+        for (int from = 0; from < values.size(); from += LOAD_CHUNK_SIZE) {
+            List<Object> chunk = values.subList(from, Math.min(from + LOAD_CHUNK_SIZE, values.size()));
+            StringBuilder sql = new StringBuilder("insert into ").append(table)
+                    .append(" (").append(InTempTableFunctionContributor.VALUE_COLUMN).append(") values (?)");
+            sql.append(", (?)".repeat(chunk.size() - 1));
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    statement.setObject(i + 1, chunk.get(i));
+                }
+                statement.executeUpdate();
+            }
+        }
+    }
+
+}
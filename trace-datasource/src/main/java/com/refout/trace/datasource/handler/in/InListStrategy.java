@@ -0,0 +1,47 @@
+package com.refout.trace.datasource.handler.in;
+
+/**
+ * 包含条件的生成策略
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 21:10
+ */
+public enum InListStrategy {
+
+    /**
+     * 原样生成{@code in (?, ?, ...)}
+     */
+    INLINE,
+
+    /**
+     * 参数数量补齐到2的幂，使不同长度的列表共用少量语句，预编译语句和执行计划可以复用；
+     * 超过补齐上限时按上限分块，每块补齐后以{@code or}连接
+     */
+    PADDED,
+
+    /**
+     * 写入会话临时表，以{@code in (select v from 临时表)}连接
+     */
+    TEMP_TABLE;
+
+    /**
+     * 根据值的数量选择策略
+     *
+     * @param size               去重后值的数量
+     * @param inlineMax          原样生成的最大数量
+     * @param paddedMax          补齐的最大数量
+     * @param tempTableAvailable 是否可以使用临时表
+     * @return 策略
+     */
+    public static InListStrategy of(int size, int inlineMax, int paddedMax, boolean tempTableAvailable) {
+        if (size <= inlineMax) {
+            return INLINE;
+        }
+        if (size <= paddedMax || !tempTableAvailable) {
+            return PADDED;
+        }
+        return TEMP_TABLE;
+    }
+
+}
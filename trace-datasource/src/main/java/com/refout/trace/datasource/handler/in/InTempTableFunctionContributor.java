@@ -0,0 +1,64 @@
+package com.refout.trace.datasource.handler.in;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 注册临时表包含函数{@code in_temp_table_0}到{@code in_temp_table_N}
+ *
+ * <p>
+ * Criteria无法引用未映射为实体的表，每个临时表注册一个函数，
+ * {@code in_temp_table_0(e.id)}生成{@code (id in (select v from tmp_in_0))}。<br/>
+ * 由{@code META-INF/services/org.hibernate.boot.model.FunctionContributor}加载。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 21:10
+ */
+public class InTempTableFunctionContributor implements FunctionContributor {
+
+    /**
+     * 单个查询最多使用的临时表数量
+     */
+    public static final int MAX_TEMP_TABLES = 4;
+
+    /**
+     * 临时表的值列
+     */
+    public static final String VALUE_COLUMN = "v";
+
+    /**
+     * 函数名
+     *
+     * @param slot 临时表序号
+     * @return 函数名
+     */
+    public static @NotNull String function(int slot) {
+        return "in_temp_table_" + slot;
+    }
+
+    /**
+     * 临时表名
+     *
+     * @param slot 临时表序号
+     * @return 表名
+     */
+    public static @NotNull String table(int slot) {
+        return "tmp_in_" + slot;
+    }
+
+    @Override
+    public void contributeFunctions(@NotNull FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+        for (int slot = 0; slot < MAX_TEMP_TABLES; slot++) {
+            functionContributions.getFunctionRegistry().registerPattern(function(slot),
+                    "(?1 in (select " + VALUE_COLUMN + " from " + table(slot) + "))", booleanType);
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.refout.trace.datasource.handler.page;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import com.refout.trace.datasource.handler.routing.ReadWriteContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * 并行查询执行器
+ *
+ * <p>
+ * 分页查询的数据和总数互不依赖，开启{@code trace.page.parallel.enabled}后两者在各自的虚拟线程中执行，
+ * 每个查询使用独立的只读事务和连接，分页耗时由两者之和变为两者中较大的一个。<br/>
+ * 所有请求的并行查询同时占用的连接数不超过{@code trace.page.parallel.max-connections}，超出时查询等待其他查询释放连接，
+ * 不会占满连接池；为1时不并行。<br/>
+ * 任一查询失败时立即取消另一个查询（中断其线程）并抛出失败原因。<br/>
+ * 调用方已经在事务中时不并行，避免新事务看不到调用方未提交的数据。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:10
+ */
+@Component
+public class ParallelQueryExecutor {
+
+    /**
+     * 查询的只读事务，查询线程上没有事务，每个查询都会开启新的事务和连接
+     */
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * 查询执行器，每个查询一个虚拟线程
+     */
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("page-query-", 0).factory());
+
+    /**
+     * 是否并行执行分页的数据查询和总数查询
+     */
+    @Value("${trace.page.parallel.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 所有请求的并行查询同时占用的最大连接数，应小于连接池大小
+     */
+    @Value("${trace.page.parallel.max-connections:8}")
+    private int maxConnections;
+
+    /**
+     * 所有请求共用的连接许可
+     */
+    private Semaphore connections;
+
+    public ParallelQueryExecutor(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 创建连接许可
+     */
+    @PostConstruct
+    public void init() {
+        connections = new Semaphore(Math.max(maxConnections, 1));
+    }
+
+    /**
+     * 当前调用是否并行执行
+     *
+     * @return 已开启、允许占用多个连接且调用方不在事务中时返回true
+     */
+    public boolean enabled() {
+        return enabled && maxConnections > 1 && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * 并行执行两个查询并合并结果
+     *
+     * @param first    第一个查询
+     * @param second   第二个查询
+     * @param combiner 合并两个查询结果的函数
+     * @param <A>      第一个查询的结果类型
+     * @param <B>      第二个查询的结果类型
+     * @param <R>      合并后的结果类型
+     * @return 合并后的结果
+     * @throws DatasourceException 当查询被中断时抛出异常，查询本身抛出的运行时异常原样抛出
+     */
+    public <A, B, R> R both(Callable<A> first, Callable<B> second, @NotNull BiFunction<A, B, R> combiner) {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Task<A> a = submit(first, failure);
+        Task<B> b = submit(second, failure);
+        List<Task<?>> tasks = List.of(a, b);
+        tasks.forEach(task -> task.result().whenComplete((result, e) -> {
+            if (e != null) {
+                tasks.forEach(Task::cancel);
+            }
+        }));
+
+        try {
+            CompletableFuture.allOf(a.result(), b.result()).get();
+        } catch (InterruptedException e) {
+            tasks.forEach(Task::cancel);
+            Thread.currentThread().interrupt();
+            throw new DatasourceException("查询被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = failure.get() == null ? e.getCause() : failure.get();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new DatasourceException("查询失败", cause);
+        }
+        return combiner.apply(a.result().resultNow(), b.result().resultNow());
+    }
+
+    /**
+     * 在只读事务中异步执行查询，执行前获取连接许可
+     *
+     * @param query   查询
+     * @param failure 第一个失败原因
+     * @param <V>     查询结果类型
+     * @return 查询任务
+     */
+    private <V> @NotNull Task<V> submit(Callable<V> query, AtomicReference<Throwable> failure) {
+        CompletableFuture<V> result = new CompletableFuture<>();
+        boolean written = ReadWriteContext.written();
+        Future<?> future = executor.submit(() -> {
+            if (written) { // 调用方执行过读写事务时查询也读主库
+                ReadWriteContext.markWritten();
+            }
+            try {
+                connections.acquire();
+                try {
+                    result.complete(readOnlyTransaction.execute(status -> {
+                        try {
+                            return query.call();
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new DatasourceException("查询失败", e);
+                        }
+                    }));
+                } finally {
+                    connections.release();
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+                result.completeExceptionally(e);
+            } finally {
+                ReadWriteContext.clear();
+            }
+        });
+        return new Task<>(result, future);
+    }
+
+    /**
+     * 应用关闭时停止执行查询
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 查询任务
+     *
+     * @param result 查询结果
+     * @param future 执行查询的线程
+     * @param <V>    查询结果类型
+     */
+    private record Task<V>(CompletableFuture<V> result, Future<?> future) {
+
+        /**
+         * 取消查询：结果立即以取消结束，并中断执行查询的线程
+         */
+        void cancel() {
+            result.cancel(false);
+            future.cancel(true);
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.refout.trace.datasource.handler.routing;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离的请求上下文
+ *
+ * <p>
+ * 当前请求执行过读写事务后，后续的只读事务也路由到主库，保证读到自己刚写入的数据，
+ * 不受从库复制延迟的影响。请求开始时需要调用{@link #begin()}，结束时调用{@link #clear()}清除。<br/>
+ * 不在请求中的线程（定时任务、线程池等）没有请求边界，标记只保持到当前事务结束，
+ * 避免线程复用后一直路由到主库。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:40
+ */
+public final class ReadWriteContext {
+
+    /**
+     * 当前请求是否执行过读写事务
+     */
+    private static final ThreadLocal<Boolean> WRITTEN = new ThreadLocal<>();
+
+    /**
+     * 当前线程是否在请求中
+     */
+    private static final ThreadLocal<Boolean> REQUEST = new ThreadLocal<>();
+
+    private ReadWriteContext() {
+    }
+
+    /**
+     * 开始一个请求，标记保持到请求结束时{@link #clear()}
+     */
+    public static void begin() {
+        WRITTEN.remove();
+        REQUEST.set(Boolean.TRUE);
+    }
+
+    /**
+     * 标记当前请求执行过读写事务
+     * <p>
+     * 不在请求中时，在当前事务结束后清除标记
+     */
+    public static void markWritten() {
+        if (WRITTEN.get() != null) {
+            return;
+        }
+        WRITTEN.set(Boolean.TRUE);
+        if (REQUEST.get() == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    WRITTEN.remove();
+                }
+            });
+        }
+    }
+
+    /**
+     * 当前请求是否执行过读写事务
+     *
+     * @return 执行过读写事务时返回true
+     */
+    public static boolean written() {
+        return WRITTEN.get() != null;
+    }
+
+    /**
+     * 清除当前请求的上下文
+     */
+    public static void clear() {
+        WRITTEN.remove();
+        REQUEST.remove();
+    }
+
+}
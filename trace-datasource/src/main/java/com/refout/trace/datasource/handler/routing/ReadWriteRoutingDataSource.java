@@ -0,0 +1,214 @@
+package com.refout.trace.datasource.handler.routing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离的路由数据源
+ *
+ * <p>
+ * 只读事务轮询路由到可用的从库，读写事务和不在事务中的访问路由到主库：<br/>
+ * 从库复制延迟超过{@code maxLagSeconds}或无法查询延迟时暂时不可用，没有可用的从库时回退到主库；<br/>
+ * 当前请求执行过读写事务后，后续的只读事务也路由到主库（见{@link ReadWriteContext}）。<br/>
+ * 路由在获取物理连接时决定，需要由{@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * 包装，使连接推迟到事务的只读标记设置之后才获取。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:45
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    /**
+     * 主库的路由键
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * 默认的从库延迟查询，读取{@code Seconds_Behind_Source}
+     */
+    public static final String SHOW_REPLICA_STATUS = "SHOW REPLICA STATUS";
+
+    /**
+     * 从库
+     */
+    private final List<Replica> replicas;
+
+    /**
+     * 查询从库复制延迟（秒）的SQL
+     */
+    private final String lagQuery;
+
+    /**
+     * 从库允许的最大复制延迟（秒）
+     */
+    private final long maxLagSeconds;
+
+    /**
+     * 轮询计数
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * 构造函数
+     *
+     * @param primary       主库
+     * @param replicas      从库
+     * @param lagQuery      查询从库复制延迟（秒）的SQL，为空时使用{@link #SHOW_REPLICA_STATUS}
+     * @param maxLagSeconds 从库允许的最大复制延迟（秒）
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, @NotNull List<Replica> replicas,
+                                      @Nullable String lagQuery, long maxLagSeconds) {
+        this.replicas = List.copyOf(replicas);
+        this.lagQuery = StringUtils.hasText(lagQuery) ? lagQuery : SHOW_REPLICA_STATUS;
+        this.maxLagSeconds = maxLagSeconds;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        this.replicas.forEach(replica -> targets.put(replica.name(), replica.dataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadWriteContext.markWritten();
+            return PRIMARY;
+        }
+        if (ReadWriteContext.written()) {
+            return PRIMARY;
+        }
+        Replica replica = nextAvailable();
+        return replica == null ? PRIMARY : replica.name();
+    }
+
+    /**
+     * 轮询下一个可用的从库
+     *
+     * @return 可用的从库，没有时返回null
+     */
+    private @Nullable Replica nextAvailable() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 检查每个从库的复制延迟，更新从库是否可用
+     */
+    @Scheduled(fixedDelayString = "${trace.datasource.routing.lag-check-millis:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean available;
+            try {
+                Long lag = lag(new JdbcTemplate(replica.dataSource()));
+                available = lag != null && lag <= maxLagSeconds;
+                if (!available) {
+                    log.warn("从库{}复制延迟{}秒，暂时路由到其他库", replica.name(), lag);
+                }
+            } catch (Exception e) {
+                available = false;
+                log.warn("从库{}复制延迟查询失败，暂时路由到其他库", replica.name(), e);
+            }
+            replica.available = available;
+        }
+    }
+
+    /**
+     * 查询复制延迟
+     *
+     * @param jdbcTemplate 从库的JdbcTemplate
+     * @return 复制延迟（秒），复制停止时返回null
+     */
+    private @Nullable Long lag(@NotNull JdbcTemplate jdbcTemplate) {
+        if (!SHOW_REPLICA_STATUS.equals(lagQuery)) {
+            return jdbcTemplate.queryForObject(lagQuery, Long.class);
+        }
+        return jdbcTemplate.query(lagQuery, (ResultSetExtractor<Long>) rs -> {
+            if (!rs.next()) { // 不是从库，没有延迟
+                return 0L;
+            }
+            long lag = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : lag;
+        });
+    }
+
+    /**
+     * 关闭时关闭从库的连接池，主库的连接池由容器管理
+     *
+     * @throws Exception 关闭失败时抛出异常
+     */
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * 从库
+     */
+    public static final class Replica {
+
+        /**
+         * 路由键
+         */
+        private final String name;
+
+        /**
+         * 数据源
+         */
+        private final DataSource dataSource;
+
+        /**
+         * 是否可用，复制延迟检查后更新
+         */
+        private volatile boolean available = true;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean available() {
+            return available;
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.refout.trace.datasource.handler.segment;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 数据库号段分配器
+ *
+ * <p>
+ * 号段保存在{@code ts_id_segment}表中，每个业务标识一行，{@code max_id}为已分配出去的最大ID。
+ * 分配号段时在独立事务中执行{@code max_id = max_id + step}，行锁保证多个节点不会分配到重叠的号段，
+ * 业务标识不存在时自动初始化，步长取{@code trace.id.segment.step}。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:20
+ */
+@Slf4j
+@Component
+public class IdSegmentAllocator {
+
+    /**
+     * 推进号段的SQL
+     */
+    private static final String UPDATE_SQL =
+            "update ts_id_segment set max_id = max_id + step, update_time = now() where biz_tag = ?";
+
+    /**
+     * 查询号段的SQL
+     */
+    private static final String SELECT_SQL = "select max_id, step from ts_id_segment where biz_tag = ?";
+
+    /**
+     * 初始化业务标识的SQL，并发初始化时忽略主键冲突
+     */
+    private static final String INSERT_SQL =
+            "insert ignore into ts_id_segment (biz_tag, max_id, step, update_time) values (?, 0, ?, now())";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 独立事务，号段分配不受调用方事务回滚的影响，也不会长时间持有行锁
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 预取号段的执行器，每个预取任务一个虚拟线程
+     */
+    private final ExecutorService prefetchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("id-segment-prefetch-", 0).factory());
+
+    /**
+     * 业务标识对应的双缓冲号段
+     */
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * 新业务标识的号段步长
+     */
+    @Value("${trace.id.segment.step:10000}")
+    private int step;
+
+    /**
+     * 预取比例，当前号段使用量达到该比例后预取下一个号段
+     */
+    @Value("${trace.id.segment.prefetch-ratio:0.8}")
+    private double prefetchRatio;
+
+    public IdSegmentAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 获取业务标识对应的双缓冲号段，同一业务标识共用一个
+     *
+     * @param bizTag 业务标识
+     * @return 双缓冲号段
+     */
+    public SegmentBuffer buffer(@NotNull String bizTag) {
+        return buffers.computeIfAbsent(bizTag,
+                tag -> new SegmentBuffer(tag, () -> lease(tag), prefetchRatio, prefetchExecutor));
+    }
+
+    /**
+     * 从数据库分配一个号段
+     *
+     * @param bizTag 业务标识
+     * @return 号段
+     * @throws DatasourceException 当号段分配失败时抛出异常
+     */
+    public Segment lease(@NotNull String bizTag) {
+        Segment segment = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(UPDATE_SQL, bizTag) == 0) {
+                jdbcTemplate.update(INSERT_SQL, bizTag, step);
+                jdbcTemplate.update(UPDATE_SQL, bizTag);
+            }
+            List<Segment> segments = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+                long maxId = rs.getLong("max_id");
+                return new Segment(maxId - rs.getInt("step") + 1, maxId);
+            }, bizTag);
+            return segments.isEmpty() ? null : segments.getFirst();
+        });
+        if (segment == null) {
+            throw new DatasourceException("业务标识" + bizTag + "分配号段失败");
+        }
+        log.debug("业务标识{}分配号段[{}, {}]", bizTag, segment.start(), segment.end());
+        return segment;
+    }
+
+    /**
+     * 应用关闭时停止预取
+     */
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+}
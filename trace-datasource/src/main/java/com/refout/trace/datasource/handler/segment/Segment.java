@@ -0,0 +1,36 @@
+package com.refout.trace.datasource.handler.segment;
+
+/**
+ * 号段，包含从start到end（含）的连续ID
+ *
+ * @param start 起始ID
+ * @param end   结束ID
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:02
+ */
+public record Segment(long start, long end) {
+
+    /**
+     * 构造函数
+     *
+     * @param start 起始ID
+     * @param end   结束ID
+     * @throws IllegalArgumentException 当结束ID小于起始ID时抛出异常
+     */
+    public Segment {
+        if (end < start) {
+            throw new IllegalArgumentException("号段结束ID不能小于起始ID");
+        }
+    }
+
+    /**
+     * 号段包含的ID数量
+     *
+     * @return ID数量
+     */
+    public long size() {
+        return end - start + 1;
+    }
+
+}
@@ -0,0 +1,247 @@
+package com.refout.trace.datasource.handler.segment;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 双缓冲号段
+ *
+ * <p>
+ * 当前号段通过{@link AtomicLong}自增发放ID，无锁；
+ * 当前号段的使用量达到预取比例后，在后台线程预取下一个号段，当前号段用完时直接切换，ID生成不会阻塞在数据库上。
+ * </p>
+ *
+ * <p>
+ * 预取失败时记录日志，并在退避时间后由后续的ID请求重新触发预取；
+ * 当前号段用完而下一个号段不可用时，同步加载并按退避时间重试，全部失败后抛出异常。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:05
+ */
+@Slf4j
+public class SegmentBuffer {
+
+    /**
+     * 同步加载号段的最大尝试次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * 加载失败后的退避毫秒数
+     */
+    private static final long BACKOFF_MILLIS = 100;
+
+    /**
+     * 业务标识
+     */
+    private final String bizTag;
+
+    /**
+     * 号段加载器
+     */
+    private final Supplier<Segment> loader;
+
+    /**
+     * 预取比例，当前号段使用量达到该比例后预取下一个号段
+     */
+    private final double prefetchRatio;
+
+    /**
+     * 预取号段使用的执行器
+     */
+    private final Executor executor;
+
+    /**
+     * 切换号段的锁，使用ReentrantLock避免在虚拟线程中钉住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 预取中或已预取的下一个号段
+     */
+    private final AtomicReference<CompletableFuture<Window>> next = new AtomicReference<>();
+
+    /**
+     * 当前号段
+     */
+    private volatile Window current;
+
+    /**
+     * 预取失败后允许再次预取的时间
+     */
+    private volatile long prefetchRetryAt;
+
+    /**
+     * 构造函数
+     *
+     * @param bizTag        业务标识
+     * @param loader        号段加载器
+     * @param prefetchRatio 预取比例，取值范围为(0,1]
+     * @param executor      预取号段使用的执行器
+     * @throws IllegalArgumentException 当预取比例超出取值范围时抛出异常
+     */
+    public SegmentBuffer(String bizTag, Supplier<Segment> loader, double prefetchRatio, Executor executor) {
+        if (prefetchRatio <= 0 || prefetchRatio > 1) {
+            throw new IllegalArgumentException("号段预取比例的取值范围为(0,1]");
+        }
+        this.bizTag = bizTag;
+        this.loader = loader;
+        this.prefetchRatio = prefetchRatio;
+        this.executor = executor;
+    }
+
+    /**
+     * 生成ID
+     *
+     * @return 当前业务标识下唯一且递增的ID
+     * @throws DatasourceException 当号段加载失败时抛出异常
+     */
+    public long nextId() {
+        while (true) {
+            Window window = current;
+            if (window != null) {
+                long id = window.cursor.getAndIncrement();
+                if (id <= window.segment.end()) {
+                    if (id >= window.threshold && next.get() == null) {
+                        prefetch();
+                    }
+                    return id;
+                }
+            }
+            switchWindow(window);
+        }
+    }
+
+    /**
+     * 获取业务标识
+     *
+     * @return 业务标识
+     */
+    public String getBizTag() {
+        return bizTag;
+    }
+
+    /**
+     * 在后台线程预取下一个号段，同一时间只有一个预取任务
+     */
+    private void prefetch() {
+        if (System.currentTimeMillis() < prefetchRetryAt) {
+            return;
+        }
+        CompletableFuture<Window> future = new CompletableFuture<>();
+        if (!next.compareAndSet(null, future)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(new Window(loader.get(), prefetchRatio));
+                } catch (Throwable e) {
+                    log.warn("业务标识{}预取号段失败，{}ms后重试", bizTag, BACKOFF_MILLIS, e);
+                    prefetchRetryAt = System.currentTimeMillis() + BACKOFF_MILLIS;
+                    next.compareAndSet(future, null);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("业务标识{}提交号段预取任务失败", bizTag, e);
+            next.compareAndSet(future, null);
+        }
+    }
+
+    /**
+     * 当前号段用完后切换到下一个号段
+     *
+     * @param exhausted 已用完的号段
+     * @throws DatasourceException 当号段加载失败时抛出异常
+     */
+    private void switchWindow(@Nullable Window exhausted) {
+        lock.lock();
+        try {
+            if (current != exhausted) { // 其他线程已经切换
+                return;
+            }
+            Window window = null;
+            CompletableFuture<Window> future = next.getAndSet(null);
+            if (future != null) {
+                try {
+                    window = future.join();
+                } catch (CompletionException e) {
+                    log.warn("业务标识{}预取的号段不可用，同步加载", bizTag);
+                }
+            }
+            current = window != null ? window : load();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 同步加载号段，失败后按退避时间重试
+     *
+     * @return 号段
+     * @throws DatasourceException 当全部尝试都失败时抛出异常
+     */
+    private @NotNull Window load() {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                return new Window(loader.get(), prefetchRatio);
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("业务标识{}第{}次加载号段失败", bizTag, attempt, e);
+            }
+            if (attempt < MAX_ATTEMPTS) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(BACKOFF_MILLIS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new DatasourceException("业务标识" + bizTag + "加载号段失败，无法生成ID", failure);
+    }
+
+    /**
+     * 正在发放的号段
+     */
+    private static final class Window {
+
+        /**
+         * 号段
+         */
+        private final Segment segment;
+
+        /**
+         * 下一个待发放的ID
+         */
+        private final AtomicLong cursor;
+
+        /**
+         * 触发预取的ID
+         */
+        private final long threshold;
+
+        private Window(@NotNull Segment segment, double prefetchRatio) {
+            this.segment = segment;
+            this.cursor = new AtomicLong(segment.start());
+            this.threshold = segment.start() + (long) (segment.size() * prefetchRatio) - 1;
+        }
+
+    }
+
+}
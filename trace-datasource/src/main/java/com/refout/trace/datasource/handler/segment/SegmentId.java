@@ -0,0 +1,86 @@
+package com.refout.trace.datasource.handler.segment;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Properties;
+
+/**
+ * 自定义的Hibernate标识生成器，从数据库号段中生成稠密且单调递增的ID，不依赖redis。
+ *
+ * <p>
+ * 默认以实体的表名作为业务标识，可以通过{@link #BIZ_TAG}参数指定：
+ * <pre>{@code
+ * @Id
+ * @GeneratedValue(generator = "segmentId")
+ * @GenericGenerator(type = SegmentId.class, name = "segmentId",
+ *         parameters = @Parameter(name = SegmentId.BIZ_TAG, value = "order"))
+ * private Long id;
+ * }</pre>
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 18:35
+ */
+public class SegmentId implements IdentifierGenerator {
+
+    /**
+     * 指定业务标识的参数名
+     */
+    public static final String BIZ_TAG = "biz_tag";
+
+    /**
+     * 数据库号段分配器
+     */
+    private final IdSegmentAllocator allocator;
+
+    /**
+     * 当前实体使用的双缓冲号段
+     */
+    private SegmentBuffer buffer;
+
+    /**
+     * 接受一个IdSegmentAllocator对象作为参数，用于分配号段
+     *
+     * @param allocator {@link IdSegmentAllocator}
+     */
+    public SegmentId(@NotNull IdSegmentAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    /**
+     * 根据业务标识参数或实体表名选择号段
+     *
+     * @param type            The id property type descriptor
+     * @param parameters      param values, keyed by parameter name
+     * @param serviceRegistry Access to service that may be needed.
+     */
+    @Override
+    public void configure(Type type, @NotNull Properties parameters, ServiceRegistry serviceRegistry) {
+        String bizTag = parameters.getProperty(BIZ_TAG, parameters.getProperty(PersistentIdentifierGenerator.TABLE));
+        if (bizTag == null) {
+            throw new HibernateException("SegmentId需要指定" + BIZ_TAG + "参数");
+        }
+        buffer = allocator.buffer(bizTag);
+    }
+
+    /**
+     * Generate a new identifier.
+     *
+     * @param session The session from which the request originates
+     * @param object  the entity or collection (idbag) for which the id is being generated
+     * @return a new identifier
+     * @throws HibernateException Indicates trouble generating the identifier
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return buffer.nextId();
+    }
+
+}
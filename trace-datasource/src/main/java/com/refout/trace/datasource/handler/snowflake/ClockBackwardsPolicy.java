@@ -0,0 +1,41 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+/**
+ * Snowflake时钟回退的处理策略
+ *
+ * <p>
+ * 时钟回退量小于等于{@code toleranceMillis}时，继续使用上次生成ID的时间戳（借用序列号空间）；<br/>
+ * 大于{@code toleranceMillis}且小于等于{@code maxWaitMillis}时，等待系统时钟追上上次生成ID的时间戳；<br/>
+ * 大于{@code maxWaitMillis}时，生成ID失败。
+ * </p>
+ *
+ * @param toleranceMillis 可容忍的时钟回退毫秒数
+ * @param maxWaitMillis   最多等待的时钟回退毫秒数
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 14:05
+ */
+public record ClockBackwardsPolicy(long toleranceMillis, long maxWaitMillis) {
+
+	/**
+	 * 严格模式，时钟发生任何回退都生成ID失败
+	 */
+	public static final ClockBackwardsPolicy STRICT = new ClockBackwardsPolicy(0, 0);
+
+	/**
+	 * 构造函数
+	 *
+	 * @param toleranceMillis 可容忍的时钟回退毫秒数
+	 * @param maxWaitMillis   最多等待的时钟回退毫秒数
+	 * @throws IllegalArgumentException 当参数小于0或toleranceMillis大于maxWaitMillis时抛出异常
+	 */
+	public ClockBackwardsPolicy {
+		if (toleranceMillis < 0 || maxWaitMillis < 0) {
+			throw new IllegalArgumentException("时钟回退容忍时间和最大等待时间不能小于0");
+		}
+		if (toleranceMillis > maxWaitMillis) {
+			throw new IllegalArgumentException("时钟回退容忍时间不能大于最大等待时间");
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁的Snowflake实现
+ *
+ * <p>
+ * 将上次生成ID的时间戳和序列号打包进同一个{@link AtomicLong}：<br/>
+ * 高位：时间戳（相对于TWEPOCH）<br/>
+ * 低12位：序列号<br/>
+ * 通过CAS推进状态，避免{@link Snowflake#nextId()}的monitor竞争，也不会在JDK21下钉住虚拟线程。
+ * 生成的ID结构与{@link Snowflake}完全一致。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 10:12
+ */
+public class LockFreeSnowflake extends Snowflake {
+
+	/**
+	 * 打包后的状态：(时间戳 - TWEPOCH) << SEQUENCE_BITS | 序列号
+	 */
+	private final AtomicLong state = new AtomicLong();
+
+	/**
+	 * 序列号掩码，作为分道使用时只占用序列号的低位
+	 */
+	private final long sequenceMask;
+
+	/**
+	 * 分道编号左移后的值，拼装ID时与序列号按位或，不分道时为0
+	 */
+	private final long laneBase;
+
+	/**
+	 * 构造函数
+	 *
+	 * @param datacenterId 数据中心ID，取值范围为0-31
+	 * @param workerId     机器ID，取值范围为0-31
+	 * @throws IllegalArgumentException 当机器ID或数据中心ID超出取值范围时抛出异常
+	 */
+	public LockFreeSnowflake(long datacenterId, long workerId) {
+		this(datacenterId, workerId, ClockBackwardsPolicy.STRICT);
+	}
+
+	/**
+	 * 构造函数
+	 *
+	 * @param datacenterId         数据中心ID，取值范围为0-31
+	 * @param workerId             机器ID，取值范围为0-31
+	 * @param clockBackwardsPolicy 时钟回退处理策略
+	 * @throws IllegalArgumentException 当机器ID或数据中心ID超出取值范围时抛出异常
+	 */
+	public LockFreeSnowflake(long datacenterId, long workerId, ClockBackwardsPolicy clockBackwardsPolicy) {
+		this(datacenterId, workerId, clockBackwardsPolicy, 0, 0);
+	}
+
+	/**
+	 * 构造分道使用的生成器，序列号的高laneBits位固定为分道编号，低位为该分道独立的序列号
+	 *
+	 * @param datacenterId         数据中心ID，取值范围为0-31
+	 * @param workerId             机器ID，取值范围为0-31
+	 * @param clockBackwardsPolicy 时钟回退处理策略
+	 * @param laneBits             分道编号所占位数
+	 * @param lane                 分道编号
+	 * @throws IllegalArgumentException 当机器ID或数据中心ID超出取值范围时抛出异常
+	 */
+	LockFreeSnowflake(long datacenterId, long workerId, ClockBackwardsPolicy clockBackwardsPolicy,
+	                  int laneBits, int lane) {
+		super(datacenterId, workerId, clockBackwardsPolicy);
+		long sequenceBits = SEQUENCE_BITS - laneBits;
+		this.sequenceMask = ~(-1L << sequenceBits);
+		this.laneBase = (long) lane << sequenceBits;
+	}
+
+	/**
+	 * 生成ID
+	 *
+	 * @return 全局唯一ID
+	 * @throws DatasourceException 当系统时钟回退超出策略允许的范围时抛出异常
+	 */
+	@Override
+	public long nextId() {
+		while (true) {
+			// 先读状态再读时钟，保证正常情况下 timestamp >= lastTimestamp
+			long current = state.get();
+			long lastTimestamp = (current >>> SEQUENCE_BITS) + TWEPOCH;
+			long timestamp = timeGen();
+			if (timestamp < lastTimestamp) { // 时间回退了，按照策略处理
+				timestamp = clockBackwards(timestamp, lastTimestamp);
+			}
+			long next;
+			if (timestamp > lastTimestamp) { // 时间变化，重置序列号
+				next = (timestamp - TWEPOCH) << SEQUENCE_BITS;
+			} else { // 时间相同，自增序列号
+				if ((current & sequenceMask) == sequenceMask) { // 序列号用完了，等待下一毫秒后重试
+					tilNextMillis(lastTimestamp);
+					continue;
+				}
+				next = current + 1;
+			}
+			if (state.compareAndSet(current, next)) {
+				return toId((next >>> SEQUENCE_BITS) + TWEPOCH, laneBase | (next & SEQUENCE_MASK));
+			}
+		}
+	}
+
+	/**
+	 * 批量生成ID
+	 *
+	 * <p>
+	 * 每次CAS在当前毫秒内预留尽可能多的连续序列号，不足部分顺延到后续毫秒。
+	 * </p>
+	 *
+	 * @param n 需要的ID数量
+	 * @return 递增的全局唯一ID数组
+	 * @throws IllegalArgumentException 当数量小于1时抛出异常
+	 * @throws DatasourceException      当系统时钟回退超出策略允许的范围时抛出异常
+	 */
+	@Override
+	public long[] nextIds(int n) {
+		checked(n);
+		long[] ids = new long[n];
+		int count = 0;
+		while (count < n) {
+			long current = state.get();
+			long lastTimestamp = (current >>> SEQUENCE_BITS) + TWEPOCH;
+			long timestamp = timeGen();
+			if (timestamp < lastTimestamp) { // 时间回退了，按照策略处理
+				timestamp = clockBackwards(timestamp, lastTimestamp);
+			}
+			long from;
+			if (timestamp > lastTimestamp) { // 时间变化，从0开始预留
+				from = 0L;
+			} else { // 时间相同，从下一个序列号开始预留
+				if ((current & sequenceMask) == sequenceMask) { // 序列号用完了，等待下一毫秒后重试
+					tilNextMillis(lastTimestamp);
+					continue;
+				}
+				from = (current & SEQUENCE_MASK) + 1;
+			}
+			long to = Math.min(sequenceMask, from + (n - count) - 1);
+			if (state.compareAndSet(current, ((timestamp - TWEPOCH) << SEQUENCE_BITS) | to)) {
+				for (long seq = from; seq <= to; seq++) {
+					ids[count++] = toId(timestamp, laneBase | seq);
+				}
+			}
+		}
+		return ids;
+	}
+
+}
@@ -1,22 +1,37 @@
 package com.refout.trace.datasource.handler.snowflake;
 
+import com.refout.trace.common.util.RandomUtil;
+import com.refout.trace.datasource.enums.SnowflakeMode;
+import com.refout.trace.datasource.exception.DatasourceException;
 import com.refout.trace.redis.constant.CacheKeyRule;
 import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
 /**
  * redis雪花算法datacenterId和workerId生成处理器
  *
+ * <p>
+ * datacenterId和workerId组成1024个槽位，槽位以租约的形式在redis服务端通过lua脚本原子分配：<br/>
+ * 有序集合{@code SNOWFLAKE:LEASE}：成员为槽位，分数为租约到期时间（redis服务器时间，毫秒）<br/>
+ * 哈希{@code SNOWFLAKE:LEASE:OWNER}：槽位对应的持有者标识<br/>
+ * 启动时一次脚本调用即可分配槽位，多个节点同时启动也不会分配到同一个槽位；
+ * 租约按三分之一租期定时续约，续约失败且租约到期后停止生成ID，避免与接手该槽位的节点重复。<br/>
+ * 兼容按{@code SNOWFLAKE:NODE:<datacenterId>:<workerId>}键分配的旧版本节点，滚动发布期间新旧节点不会持有同一槽位：
+ * 分配时跳过存在旧版本键的槽位；持有槽位期间同时以租期为过期时间写入该键，旧版本节点扫描时视为已占用；
+ * 旧版本节点在分配后、新节点续约前占用了该键时续约失败。
+ * </p>
+ *
  * @author oo w
  * @version 1.0
  * @since 2023/7/16 22:26
@@ -26,19 +41,87 @@ import java.util.function.Function;
 public class RedisSnowflakeHandler {
 
     /**
-     * 最小id
+     * 槽位数量，datacenterId和workerId各5位，共1024个
+     */
+    private static final int SLOT_COUNT = 1024;
+
+    /**
+     * 槽位中workerId所占位数
+     */
+    private static final int WORKER_ID_BITS = 5;
+
+    /**
+     * 分配租约的lua脚本：清理过期租约后分配第一个空闲且没有旧版本键的槽位，没有空闲槽位时返回-1
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.replicate_commands then redis.replicate_commands() end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            for _, slot in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now)) do
+                redis.call('ZREM', KEYS[1], slot)
+                redis.call('HDEL', KEYS[2], slot)
+            end
+            local used = {}
+            for _, slot in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+                used[tonumber(slot)] = true
+            end
+            for slot = 0, tonumber(ARGV[3]) - 1 do
+                if not used[slot] then
+                    local legacy = ARGV[4] .. math.floor(slot / 32) .. ':' .. (slot % 32)
+                    if redis.call('EXISTS', legacy) == 0 then
+                        redis.call('ZADD', KEYS[1], now + tonumber(ARGV[2]), slot)
+                        redis.call('HSET', KEYS[2], slot, ARGV[1])
+                        redis.call('SET', legacy, ARGV[1], 'PX', ARGV[2])
+                        return slot
+                    end
+                end
+            end
+            return -1
+            """, Long.class);
+
+    /**
+     * 续约的lua脚本：槽位仍由当前节点持有或已空闲时续约并返回1，已被其他节点或旧版本节点持有时返回0
      */
-    private static final long MIN_ID = 0;
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.replicate_commands then redis.replicate_commands() end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local owner = redis.call('HGET', KEYS[2], ARGV[3])
+            if owner and owner ~= ARGV[1] then
+                local expire = redis.call('ZSCORE', KEYS[1], ARGV[3])
+                if expire and tonumber(expire) > now then
+                    return 0
+                end
+            end
+            local legacy = redis.call('GET', KEYS[3])
+            if legacy and legacy ~= ARGV[1] then
+                return 0
+            end
+            redis.call('ZADD', KEYS[1], now + tonumber(ARGV[2]), ARGV[3])
+            redis.call('HSET', KEYS[2], ARGV[3], ARGV[1])
+            redis.call('SET', KEYS[3], ARGV[1], 'PX', ARGV[2])
+            return 1
+            """, Long.class);
 
     /**
-     * 最大id
+     * 释放租约的lua脚本：仅释放当前节点持有的槽位
      */
-    private static final long MAX_ID = 32;
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('HGET', KEYS[2], ARGV[2]) == ARGV[1] then
+                redis.call('ZREM', KEYS[1], ARGV[2])
+                redis.call('HDEL', KEYS[2], ARGV[2])
+                if redis.call('GET', KEYS[3]) == ARGV[1] then
+                    redis.call('DEL', KEYS[3])
+                end
+                return 1
+            end
+            return 0
+            """, Long.class);
 
     /**
-     * id数量
+     * 当前节点的租约持有者标识
      */
-    private static final long ID_COUNT = MAX_ID - MIN_ID + 1;
+    private final String owner = RandomUtil.randomUUID();
 
     /**
      * 当前机器获取到的datacenterId和workerId
@@ -48,16 +131,45 @@ public class RedisSnowflakeHandler {
     private Snowflake snowflake;
 
     /**
-     * datacenterId和workerId在redis中过期的时间
+     * 租约本地到期时间，按续约成功时的本地时间计算，未分配租约时为0
      */
-    @Value("${trace.snowflake.node-id.timeout-hour}")
-    private int timeoutHour;
+    private volatile long leaseExpireAt;
 
     /**
-     * RedisTemplate
+     * datacenterId和workerId的租约时长
+     */
+    @Value("${trace.snowflake.node-id.lease-second:600}")
+    private long leaseSecond;
+
+    /**
+     * Snowflake生成器模式，默认为synchronized实现
+     */
+    @Value("${trace.snowflake.mode:synchronized}")
+    private SnowflakeMode mode;
+
+    /**
+     * 分道数，仅striped模式使用，必须是2的幂
+     */
+    @Value("${trace.snowflake.stripes:" + StripedSnowflake.DEFAULT_STRIPES + "}")
+    private int stripes;
+
+    /**
+     * 可容忍的时钟回退毫秒数，回退量不超过该值时继续使用上次的时间戳生成ID
+     */
+    @Value("${trace.snowflake.clock-backwards.tolerance-millis:0}")
+    private long clockBackwardsToleranceMillis;
+
+    /**
+     * 最多等待的时钟回退毫秒数，回退量超过该值时生成ID失败
+     */
+    @Value("${trace.snowflake.clock-backwards.max-wait-millis:0}")
+    private long clockBackwardsMaxWaitMillis;
+
+    /**
+     * StringRedisTemplate，用于执行租约脚本
      */
     @Resource
-    private RedisTemplate<String, List<Long>> redisTemplate;
+    private StringRedisTemplate stringRedisTemplate;
 
     public Snowflake getSnowflake() {
         if (snowflake == null) {
@@ -65,92 +177,94 @@ public class RedisSnowflakeHandler {
             if (node == null) {
                 throw new RuntimeException("datacenter_id,worker_id has been exhausted!");
             }
-            snowflake = new Snowflake(node.datacenterId(), node.workerId());
-            log.debug("datacenterId:{},workerId:{}", node.datacenterId(), node.workerId());
+            ClockBackwardsPolicy clockBackwardsPolicy =
+                    new ClockBackwardsPolicy(clockBackwardsToleranceMillis, clockBackwardsMaxWaitMillis);
+            snowflake = mode.create(node.datacenterId(), node.workerId(), clockBackwardsPolicy, stripes);
+            log.debug("datacenterId:{},workerId:{},mode:{}", node.datacenterId(), node.workerId(), mode);
         }
         return snowflake;
     }
 
     /**
-     * 获取Node节点，datacenterId和workerId
+     * 获取已创建的Snowflake生成器，不会触发创建
      *
-     * @return datacenterId和workerId
+     * @return Snowflake生成器，尚未创建时返回null
      */
-    protected Node getNode() {
-        if (thisNode == null) {
-            thisNode = findNode();
-            log.debug("从redis获取当前节点datacenterId:{},workerId:{}", thisNode.datacenterId, thisNode.workerId);
-        }
-
-        return thisNode;
+    @Nullable
+    Snowflake currentSnowflake() {
+        return snowflake;
     }
 
     /**
-     * 查找Node节点
+     * 检查当前节点的租约是否有效
      *
-     * @return datacenterId和workerId
+     * @throws DatasourceException 当租约已过期时抛出异常，此时槽位可能已被其他节点持有
      */
-    protected Node findNode() {
-        Set<String> keys = redisTemplate.keys(CacheKey.commonKey());
-        if (keys == null || keys.isEmpty()) {
-            setNodeToRedis(MIN_ID, MIN_ID);
-            return new Node(MIN_ID, MIN_ID);
+    void checkLease() {
+        if (System.currentTimeMillis() >= leaseExpireAt) {
+            throw new DatasourceException("datacenter_id,worker_id的租约已过期，无法生成ID");
         }
+    }
 
-        Map<Long, List<Long>> map = new TreeMap<>();
-
-        for (String key : keys) {
-            if (key == null || key.isBlank()) {
-                continue;
-            }
-
-            String[] split = key.split(CacheKey.SEPARATOR);
-            if (split.length < CacheKey.ITEM_COUNT) {
-                continue;
-            }
-
-            long datacenterId = Long.parseLong(split[CacheKey.DATACENTER_ID_INDEX]);
-            long workerId = Long.parseLong(split[CacheKey.WORKER_ID_INDEX]);
-            List<Long> list = map.get(datacenterId);
-            if (list == null) {
-                list = new ArrayList<>();
+    /**
+     * 获取Node节点，datacenterId和workerId
+     *
+     * @return datacenterId和workerId，槽位已用完时返回null
+     */
+    protected synchronized Node getNode() {
+        if (thisNode == null) {
+            thisNode = acquireNode();
+            if (thisNode != null) {
+                log.debug("从redis获取当前节点datacenterId:{},workerId:{}", thisNode.datacenterId, thisNode.workerId);
             }
-            list.add(workerId);
-            map.put(datacenterId, list);
         }
 
-        for (var entry : map.entrySet()) {
-            List<Long> value = entry.getValue();
-            if (value.size() >= ID_COUNT) {
-                continue;
-            }
-
-            Node node = getIdFromRedis(value::contains, id -> entry.getKey(), id -> id);
-            if (node != null) {
-                return node;
-            }
-        }
+        return thisNode;
+    }
 
-        if (map.size() >= ID_COUNT) {
+    /**
+     * 在redis服务端原子分配槽位
+     *
+     * @return datacenterId和workerId，槽位已用完时返回null
+     */
+    protected @Nullable Node acquireNode() {
+        long start = System.currentTimeMillis();
+        Long slot = stringRedisTemplate.execute(ACQUIRE_SCRIPT, CacheKey.keys(), owner,
+                String.valueOf(TimeUnit.SECONDS.toMillis(leaseSecond)), String.valueOf(SLOT_COUNT), CacheKey.legacyPrefix());
+        if (slot == null || slot < 0) {
             return null;
         }
-
-        return getIdFromRedis(map::containsKey, id -> id, id -> MIN_ID);
+        leaseExpireAt = start + TimeUnit.SECONDS.toMillis(leaseSecond);
+        return new Node(slot >> WORKER_ID_BITS, slot & ~(-1L << WORKER_ID_BITS));
     }
 
     /**
-     * 雪花算法datacenterId和workerId过期时间续期
+     * 雪花算法datacenterId和workerId租约续约，每三分之一租期执行一次
      */
-    @Scheduled(cron = "${trace.snowflake.node-id.redis-expire-job}")
-    public void expiredJob() {
+    @Scheduled(fixedDelayString = "#{${trace.snowflake.node-id.lease-second:600} * 1000 / 3}")
+    public void renewLease() {
         if (thisNode == null) {
             return;
         }
-        redisTemplate.expire(CacheKey.key(thisNode.datacenterId, thisNode.workerId), timeoutHour, TimeUnit.HOURS);
+        long start = System.currentTimeMillis();
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, CacheKey.keys(thisNode),
+                    owner, String.valueOf(TimeUnit.SECONDS.toMillis(leaseSecond)), String.valueOf(thisNode.slot()));
+            if (renewed != null && renewed == 1) {
+                leaseExpireAt = start + TimeUnit.SECONDS.toMillis(leaseSecond);
+                return;
+            }
+            // 槽位已被其他节点持有，立即停止生成ID
+            leaseExpireAt = 0;
+            log.error("datacenterId:{},workerId:{}已被其他节点持有，停止生成ID", thisNode.datacenterId, thisNode.workerId);
+        } catch (Exception e) {
+            log.error("datacenterId:{},workerId:{}续约失败，租约将于{}到期",
+                    thisNode.datacenterId, thisNode.workerId, leaseExpireAt, e);
+        }
     }
 
     /**
-     * 服务停止，从redis中删除当前节点datacenterId,workerId
+     * 服务停止，从redis中释放当前节点datacenterId,workerId的租约
      */
     @PreDestroy
     public void removeNode() {
@@ -159,55 +273,9 @@ public class RedisSnowflakeHandler {
         }
         long workerId = thisNode.workerId;
         long datacenterId = thisNode.datacenterId;
-        String key = CacheKey.key(datacenterId, workerId);
-        Boolean delete = redisTemplate.delete(key);
-        log.debug("服务停止，从redis中删除当前节点datacenterId:{},workerId:{}，删除结果：{}", datacenterId, workerId, delete);
-    }
-
-    /**
-     * 获取ID节点。
-     *
-     * @param notId            排除的ID函数
-     * @param datacenterIdFunc 数据中心ID函数
-     * @param workerIdFunc     工作节点ID函数
-     * @return ID节点对象，如果没有可用的节点则返回null
-     */
-    private @Nullable Node getIdFromRedis(Function<Long, Boolean> notId,
-                                          Function<Long, Long> datacenterIdFunc,
-                                          Function<Long, Long> workerIdFunc) {
-        for (long i = MIN_ID; i <= MAX_ID; i++) {
-            if (!notId.apply(i)) {
-                // 根据ID获取数据中心ID和工作节点ID
-                Long datacenterId = datacenterIdFunc.apply(i);
-                Long workerId = workerIdFunc.apply(i);
-                // 生成缓存键
-                String key = CacheKey.key(datacenterId, workerId);
-                // 判断缓存中是否存在该键
-                Boolean hasKey = redisTemplate.hasKey(key);
-                if (hasKey == null || !hasKey) {
-                    // 如果缓存中不存在该键，则将节点信息设置到Redis中，并返回节点对象
-                    setNodeToRedis(datacenterId, workerId);
-                    return new Node(datacenterId, workerId);
-                }
-            }
-        }
-        // 如果没有可用的节点，则返回null
-        return null;
-    }
-
-    /**
-     * 将节点信息设置到Redis中。
-     *
-     * @param datacenterId 数据中心ID
-     * @param workerId     工作节点ID
-     */
-    private void setNodeToRedis(long datacenterId, long workerId) {
-        // 将节点信息存储到Redis中
-        redisTemplate.opsForValue().set(
-                // 使用缓存键作为键名，节点信息作为键值
-                CacheKey.key(datacenterId, workerId), List.of(datacenterId, workerId),
-                // 设置过期时间
-                timeoutHour, TimeUnit.HOURS);
+        Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, CacheKey.keys(thisNode),
+                owner, String.valueOf(thisNode.slot()));
+        log.debug("服务停止，从redis中释放当前节点datacenterId:{},workerId:{}，释放结果：{}", datacenterId, workerId, released);
     }
 
     /**
@@ -218,6 +286,15 @@ public class RedisSnowflakeHandler {
      */
     protected record Node(long datacenterId, long workerId) {
 
+        /**
+         * 获取节点对应的槽位
+         *
+         * @return 槽位
+         */
+        long slot() {
+            return datacenterId << WORKER_ID_BITS | workerId;
+        }
+
     }
 
     /**
@@ -231,43 +308,57 @@ public class RedisSnowflakeHandler {
         private final static String PREFIX = "SNOWFLAKE";
 
         /**
-         * 缓存键子标识。
+         * 租约缓存键子标识。
          */
-        private final static String SUB_ID = "NODE";
+        private final static String LEASE = "LEASE";
 
         /**
-         * 数据中心ID在缓存键中的索引。
+         * 租约持有者缓存键子标识。
          */
-        private final static int DATACENTER_ID_INDEX = 2;
+        private final static String OWNER = "OWNER";
 
         /**
-         * 工作节点ID在缓存键中的索引。
+         * 旧版本节点缓存键子标识。
          */
-        private final static int WORKER_ID_INDEX = 3;
+        private final static String NODE = "NODE";
 
         /**
-         * 缓存键中项的数量。
+         * 分配脚本使用的缓存键：租约有序集合和租约持有者哈希。
+         *
+         * @return 分配脚本使用的缓存键
          */
-        private final static int ITEM_COUNT = 4;
+        public static List<String> keys() {
+            return List.of(key(PREFIX, LEASE), key(PREFIX, LEASE, OWNER));
+        }
+
+        /**
+         * 续约、释放脚本使用的缓存键：租约有序集合、租约持有者哈希和节点的旧版本键。
+         *
+         * @param node 节点
+         * @return 续约、释放脚本使用的缓存键
+         */
+        public static List<String> keys(Node node) {
+            return List.of(key(PREFIX, LEASE), key(PREFIX, LEASE, OWNER), legacyKey(node.datacenterId, node.workerId));
+        }
 
         /**
-         * 根据数据中心ID和工作节点ID生成缓存键。
+         * 旧版本节点的缓存键，与旧版本的格式一致。
          *
          * @param datacenterId 数据中心ID
          * @param workerId     工作节点ID
-         * @return 生成的缓存键
+         * @return 旧版本节点的缓存键
          */
-        public static String key(long datacenterId, long workerId) {
-            return key(PREFIX, String::valueOf, SUB_ID, datacenterId, workerId);
+        public static String legacyKey(long datacenterId, long workerId) {
+            return key(PREFIX, String::valueOf, NODE, datacenterId, workerId);
         }
 
         /**
-         * 通用缓存键。
+         * 旧版本节点缓存键的前缀，脚本中拼接{@code <datacenterId>:<workerId>}。
          *
-         * @return 通用缓存键
+         * @return 旧版本节点缓存键的前缀
          */
-        public static String commonKey() {
-            return key(PREFIX, SUB_ID, "*");
+        public static String legacyPrefix() {
+            return keyEndWithSeparator(PREFIX, NODE);
         }
 
     }
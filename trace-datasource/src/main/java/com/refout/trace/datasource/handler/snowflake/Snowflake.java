@@ -1,5 +1,10 @@
 package com.refout.trace.datasource.handler.snowflake;
 
+import com.refout.trace.datasource.exception.DatasourceException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * 参考Twitter Snowflake算法实现
  *
@@ -12,8 +17,8 @@ package com.refout.trace.datasource.handler.snowflake;
  * </p>
  *
  * <p>
- * 注意：该实现中未使用时钟回拨检测和自适应调整机器ID和数据中心ID的功能，
- * 在使用过程中需要根据实际情况进行修改。
+ * 时钟回拨按照{@link ClockBackwardsPolicy}处理，默认为严格模式，发生任何回退都无法生成ID；
+ * 回退的次数、等待时间和失败次数会被记录，用于导出监控指标。
  * </p>
  *
  * @see <a href="https://github.com/twitter-archive/snowflake/tree/snowflake-2010">Snowflake官方文档</a>
@@ -24,7 +29,7 @@ public class Snowflake {
 	/**
 	 * 起始时间戳，用于将时间戳调整到更小的值，避免ID过大
 	 */
-	private static final long TWEPOCH = 1288834974657L;
+	static final long TWEPOCH = 1288834974657L;
 
 	/**
 	 * 机器ID所占位数，取值范围为0-31
@@ -39,7 +44,7 @@ public class Snowflake {
 	/**
 	 * 序列号所占位数，取值范围为0-4095
 	 */
-	private static final long SEQUENCE_BITS = 12L;
+	static final long SEQUENCE_BITS = 12L;
 
 	/**
 	 * 最大机器ID，取值范围为0-31
@@ -64,12 +69,12 @@ public class Snowflake {
 	/**
 	 * 时间戳左移位数，取决于序列号、机器ID和数据中心ID位数
 	 */
-	private static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
+	static final long TIMESTAMP_LEFT_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
 
 	/**
 	 * 序列号掩码，取值范围为0-4095，用于限制序列号值在该范围内
 	 */
-	private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
+	static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
 
 	/**
 	 * 机器ID，取值范围为0-31
@@ -81,6 +86,31 @@ public class Snowflake {
 	 */
 	private final long datacenterId;
 
+	/**
+	 * 时钟回退处理策略
+	 */
+	private final ClockBackwardsPolicy clockBackwardsPolicy;
+
+	/**
+	 * 观察到时钟回退的次数
+	 */
+	private final LongAdder clockBackwardsCount = new LongAdder();
+
+	/**
+	 * 因时钟回退而等待的次数
+	 */
+	private final LongAdder clockBackwardsWaitCount = new LongAdder();
+
+	/**
+	 * 因时钟回退而等待的总纳秒数
+	 */
+	private final LongAdder clockBackwardsWaitNanos = new LongAdder();
+
+	/**
+	 * 因时钟回退而生成ID失败的次数
+	 */
+	private final LongAdder clockBackwardsFailedCount = new LongAdder();
+
 	/**
 	 * 上次生成ID的时间戳
 	 */
@@ -99,9 +129,22 @@ public class Snowflake {
 	 * @throws IllegalArgumentException 当机器ID或数据中心ID超出取值范围时抛出异常
 	 */
 	public Snowflake(long datacenterId, long workerId) {
+		this(datacenterId, workerId, ClockBackwardsPolicy.STRICT);
+	}
+
+	/**
+	 * 构造函数
+	 *
+	 * @param datacenterId         数据中心ID，取值范围为0-31
+	 * @param workerId             机器ID，取值范围为0-31
+	 * @param clockBackwardsPolicy 时钟回退处理策略
+	 * @throws IllegalArgumentException 当机器ID或数据中心ID超出取值范围时抛出异常
+	 */
+	public Snowflake(long datacenterId, long workerId, ClockBackwardsPolicy clockBackwardsPolicy) {
 		checked(workerId, datacenterId);
 		this.workerId = workerId;
 		this.datacenterId = datacenterId;
+		this.clockBackwardsPolicy = clockBackwardsPolicy;
 	}
 
 	/**
@@ -126,12 +169,12 @@ public class Snowflake {
 	 * 生成ID
 	 *
 	 * @return 全局唯一ID
-	 * @throws RuntimeException 当系统时钟发生回退时抛出异常
+	 * @throws DatasourceException 当系统时钟回退超出策略允许的范围时抛出异常
 	 */
 	public synchronized long nextId() {
 		long timestamp = timeGen();
-		if (timestamp < lastTimestamp) { // 时间回退了，抛出异常
-			throw new RuntimeException("系统时钟发生回退，无法生成ID");
+		if (timestamp < lastTimestamp) { // 时间回退了，按照策略处理
+			timestamp = clockBackwards(timestamp, lastTimestamp);
 		}
 		if (lastTimestamp == timestamp) { // 时间相同，自增序列号
 			sequence = (sequence + 1) & SEQUENCE_MASK;
@@ -142,12 +185,110 @@ public class Snowflake {
 			sequence = 0L;
 		}
 		lastTimestamp = timestamp;
+		return toId(timestamp, sequence);
+	}
+
+	/**
+	 * 批量生成ID
+	 *
+	 * <p>
+	 * 一次性在当前毫秒内预留一段连续的序列号，当前毫秒的序列号不足时顺延到后续毫秒，
+	 * 相比循环调用{@link #nextId()}只需进入一次monitor。
+	 * </p>
+	 *
+	 * @param n 需要的ID数量
+	 * @return 递增的全局唯一ID数组
+	 * @throws IllegalArgumentException 当数量小于1时抛出异常
+	 * @throws DatasourceException      当系统时钟回退超出策略允许的范围时抛出异常
+	 */
+	public synchronized long[] nextIds(int n) {
+		checked(n);
+		long[] ids = new long[n];
+		int count = 0;
+		while (count < n) {
+			long timestamp = timeGen();
+			if (timestamp < lastTimestamp) { // 时间回退了，按照策略处理
+				timestamp = clockBackwards(timestamp, lastTimestamp);
+			}
+			long from = 0L;
+			if (lastTimestamp == timestamp) { // 时间相同，从下一个序列号开始预留
+				if (sequence == SEQUENCE_MASK) { // 序列号用完了，等待下一毫秒
+					timestamp = tilNextMillis(lastTimestamp);
+				} else {
+					from = sequence + 1;
+				}
+			}
+			long to = Math.min(SEQUENCE_MASK, from + (n - count) - 1);
+			for (long seq = from; seq <= to; seq++) {
+				ids[count++] = toId(timestamp, seq);
+			}
+			sequence = to;
+			lastTimestamp = timestamp;
+		}
+		return ids;
+	}
+
+	/**
+	 * 检查批量生成ID的数量
+	 *
+	 * @param n 需要的ID数量
+	 * @throws IllegalArgumentException 当数量小于1时抛出异常
+	 */
+	void checked(int n) {
+		if (n < 1) {
+			throw new IllegalArgumentException("ID数量不能小于1");
+		}
+	}
+
+	/**
+	 * 按照ID结构拼装ID
+	 *
+	 * @param timestamp 时间戳
+	 * @param sequence  序列号
+	 * @return ID
+	 */
+	long toId(long timestamp, long sequence) {
 		return ((timestamp - TWEPOCH) << TIMESTAMP_LEFT_SHIFT) // 时间戳部分
 				| (datacenterId << DATACENTER_ID_SHIFT) // 数据中心ID部分
 				| (workerId << WORKER_ID_SHIFT) // 机器ID部分
 				| sequence; // 序列号部分
 	}
 
+	/**
+	 * 按照时钟回退策略处理时钟回退
+	 *
+	 * @param timestamp     当前时间戳
+	 * @param lastTimestamp 上次生成ID的时间戳
+	 * @return 用于生成ID的时间戳，不小于上次生成ID的时间戳
+	 * @throws DatasourceException 当时钟回退超出策略允许的范围时抛出异常
+	 */
+	long clockBackwards(long timestamp, long lastTimestamp) {
+		clockBackwardsCount.increment();
+		long offset = lastTimestamp - timestamp;
+		if (offset <= clockBackwardsPolicy.toleranceMillis()) { // 小幅回退，继续使用上次的时间戳
+			return lastTimestamp;
+		}
+		if (offset <= clockBackwardsPolicy.maxWaitMillis()) { // 等待时钟追上上次的时间戳
+			long start = System.nanoTime();
+			try {
+				while (timestamp < lastTimestamp) {
+					TimeUnit.MILLISECONDS.sleep(lastTimestamp - timestamp);
+					timestamp = timeGen();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				clockBackwardsFailedCount.increment();
+				throw new DatasourceException("等待系统时钟回退恢复时被中断，无法生成ID", e);
+			} finally {
+				clockBackwardsWaitCount.increment();
+				clockBackwardsWaitNanos.add(System.nanoTime() - start);
+			}
+			return timestamp;
+		}
+		clockBackwardsFailedCount.increment();
+		throw new DatasourceException("系统时钟发生回退" + offset + "ms，无法生成ID");
+	}
+
 	/**
 	 * 获取下一毫秒时间戳
 	 *
@@ -181,4 +322,72 @@ public class Snowflake {
 		return (id >> TIMESTAMP_LEFT_SHIFT & ~(-1L << 41L)) + TWEPOCH;
 	}
 
+	/**
+	 * 获取指定毫秒内生成的最小ID，早于起始时间戳时返回0
+	 *
+	 * @param timestamp 毫秒时间戳
+	 * @return 该毫秒内生成的最小ID
+	 */
+	public static long minId(long timestamp) {
+		return Math.max(0L, timestamp - TWEPOCH) << TIMESTAMP_LEFT_SHIFT;
+	}
+
+	/**
+	 * 获取指定毫秒内生成的最大ID，早于起始时间戳时返回-1
+	 *
+	 * @param timestamp 毫秒时间戳
+	 * @return 该毫秒内生成的最大ID
+	 */
+	public static long maxId(long timestamp) {
+		if (timestamp < TWEPOCH) {
+			return -1L;
+		}
+		return ((timestamp - TWEPOCH + 1) << TIMESTAMP_LEFT_SHIFT) - 1;
+	}
+
+	/**
+	 * 获取时钟回退处理策略
+	 *
+	 * @return 时钟回退处理策略
+	 */
+	public ClockBackwardsPolicy getClockBackwardsPolicy() {
+		return clockBackwardsPolicy;
+	}
+
+	/**
+	 * 获取观察到时钟回退的次数
+	 *
+	 * @return 观察到时钟回退的次数
+	 */
+	public long getClockBackwardsCount() {
+		return clockBackwardsCount.sum();
+	}
+
+	/**
+	 * 获取因时钟回退而等待的次数
+	 *
+	 * @return 因时钟回退而等待的次数
+	 */
+	public long getClockBackwardsWaitCount() {
+		return clockBackwardsWaitCount.sum();
+	}
+
+	/**
+	 * 获取因时钟回退而等待的总纳秒数
+	 *
+	 * @return 因时钟回退而等待的总纳秒数
+	 */
+	public long getClockBackwardsWaitNanos() {
+		return clockBackwardsWaitNanos.sum();
+	}
+
+	/**
+	 * 获取因时钟回退而生成ID失败的次数
+	 *
+	 * @return 因时钟回退而生成ID失败的次数
+	 */
+	public long getClockBackwardsFailedCount() {
+		return clockBackwardsFailedCount.sum();
+	}
+
 }
\ No newline at end of file
@@ -1,11 +1,12 @@
 package com.refout.trace.datasource.handler.snowflake;
 
-import lombok.extern.slf4j.Slf4j;
 import org.hibernate.HibernateException;
 import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.IdentifierGenerator;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.UUID;
+
 /**
  * 自定义的Hibernate标识生成器，用于生成唯一的Snowflake ID。
  *
@@ -13,7 +14,6 @@ import org.jetbrains.annotations.NotNull;
  * @version 1.0
  * @since 2023/7/25 23:08
  */
-@Slf4j
 public class SnowflakeId implements IdentifierGenerator {
 
     /**
@@ -22,18 +22,28 @@ public class SnowflakeId implements IdentifierGenerator {
     private static Snowflake snowflake = null;
 
     /**
-     * 接受一个RedisSnowflakeHandler对象作为参数，用于获取数据中心ID和工作节点ID
+     * redis雪花算法datacenterId和workerId生成处理器，用于检查租约
+     */
+    private static RedisSnowflakeHandler handler = null;
+
+    /**
+     * 开启JDBC批量插入时，当前线程预留的ID块，块的大小从1开始按倍数增长到批量大小
+     * <p>
+     * Hibernate的Session是线程封闭的，ID块绑定到产生它的Session，Session变化后丢弃剩余的ID，
+     * 避免预留的ID在很久之后才被使用，导致ID中的时间与实际插入时间偏差过大
+     */
+    private static final ThreadLocal<Reserved> RESERVED = new ThreadLocal<>();
+
+    /**
+     * 接受一个RedisSnowflakeHandler对象作为参数，用于获取数据中心ID和工作节点ID，
+     * 生成器的实现由{@code trace.snowflake.mode}选择，见{@link com.refout.trace.datasource.enums.SnowflakeMode}
      *
      * @param redisSnowflakeHandler {@link RedisSnowflakeHandler}
      */
     public SnowflakeId(@NotNull RedisSnowflakeHandler redisSnowflakeHandler) {
         if (snowflake == null) {
-            RedisSnowflakeHandler.Node node = redisSnowflakeHandler.getNode();
-            if (node == null) {
-                throw new RuntimeException("datacenter_id,worker_id has been exhausted!");
-            }
-            snowflake = new Snowflake(node.datacenterId(), node.workerId());
-            log.debug("datacenterId:{},workerId:{}", node.datacenterId(), node.workerId());
+            snowflake = redisSnowflakeHandler.getSnowflake();
+            handler = redisSnowflakeHandler;
         }
     }
 
@@ -43,9 +53,21 @@ public class SnowflakeId implements IdentifierGenerator {
      * @return 生成一个新的Snowflake ID
      */
     public static long nextId() {
+        handler.checkLease();
         return snowflake.nextId();
     }
 
+    /**
+     * 用于直接调用Snowflake对象的nextIds方法批量生成Snowflake ID
+     *
+     * @param n 需要的ID数量
+     * @return 递增的Snowflake ID数组
+     */
+    public static long[] nextIds(int n) {
+        handler.checkLease();
+        return snowflake.nextIds(n);
+    }
+
     /**
      * Generate a new identifier.
      *
@@ -56,7 +78,80 @@ public class SnowflakeId implements IdentifierGenerator {
      */
     @Override
     public Object generate(SharedSessionContractImplementor session, Object object) {
-        return nextId();
+        int batchSize = batchSize(session);
+        if (batchSize <= 1) {
+            return nextId();
+        }
+
+        UUID sessionId = session.getSessionIdentifier();
+        Reserved reserved = RESERVED.get();
+        if (reserved == null || !reserved.sessionId().equals(sessionId)) {
+            // 新的Session先预留一个ID，单条插入不会浪费序列号
+            reserved = new Reserved(sessionId, nextIds(1));
+            RESERVED.set(reserved);
+        } else if (reserved.exhausted()) {
+            // 同一Session内连续插入时，ID块按倍数增长到批量大小
+            reserved = new Reserved(sessionId, nextIds(Math.min(batchSize, reserved.size() * 2)));
+            RESERVED.set(reserved);
+        }
+        return reserved.next();
+    }
+
+    /**
+     * 获取当前Session生效的JDBC批量大小
+     *
+     * @param session 当前Session
+     * @return JDBC批量大小，未开启批量插入时小于等于1
+     */
+    private static int batchSize(@NotNull SharedSessionContractImplementor session) {
+        Integer batchSize = session.getConfiguredJdbcBatchSize();
+        if (batchSize == null) {
+            batchSize = session.getFactory().getSessionFactoryOptions().getJdbcBatchSize();
+        }
+        return batchSize;
+    }
+
+    /**
+     * 预留的ID块
+     */
+    private static final class Reserved {
+
+        /**
+         * 预留ID块的Session标识
+         */
+        private final UUID sessionId;
+
+        /**
+         * 预留的ID
+         */
+        private final long[] ids;
+
+        /**
+         * 下一个可用ID的下标
+         */
+        private int position;
+
+        private Reserved(UUID sessionId, long[] ids) {
+            this.sessionId = sessionId;
+            this.ids = ids;
+        }
+
+        private UUID sessionId() {
+            return sessionId;
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private boolean exhausted() {
+            return position >= ids.length;
+        }
+
+        private long next() {
+            return ids[position++];
+        }
+
     }
 
 }
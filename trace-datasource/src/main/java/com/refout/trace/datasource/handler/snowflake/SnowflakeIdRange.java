@@ -0,0 +1,59 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.common.util.DateUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将创建时间范围换算为Snowflake ID范围
+ *
+ * <p>
+ * Snowflake ID的高位是生成时间，创建时间范围可以换算为主键范围，由聚簇索引完成范围扫描。
+ * ID在持久化时生成，与创建时间不完全一致（批量插入预留的ID、时钟回退容忍、datetime列按秒取整），
+ * 换算时两端各放宽{@link #SLACK_MILLIS}，精确的过滤仍由创建时间条件完成。<br/>
+ * 创建时间可以由调用方指定（导入、补录、整体修改和upsert保留传入的创建时间），此时与ID的生成时间无关，
+ * 因此不在通用查询中自动换算，只供确定创建时间总是插入时取当前时间的调用方使用。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 19:05
+ */
+public final class SnowflakeIdRange {
+
+    /**
+     * ID生成时间与创建时间允许的偏差
+     */
+    public static final long SLACK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    /**
+     * 小于该值的ID不是Snowflake生成的，例如初始化脚本中手动指定的ID
+     */
+    public static final long MIN_SNOWFLAKE_ID = 1L << Snowflake.TIMESTAMP_LEFT_SHIFT;
+
+    private SnowflakeIdRange() {
+    }
+
+    /**
+     * 创建时间下限对应的最小ID
+     *
+     * @param start 创建时间下限
+     * @return 最小ID
+     */
+    public static long lowerBound(@NotNull LocalDateTime start) {
+        return Snowflake.minId(DateUtil.LocalDateTimeToTimestamp(start) - SLACK_MILLIS);
+    }
+
+    /**
+     * 创建时间上限对应的最大ID
+     *
+     * @param end 创建时间上限
+     * @return 最大ID
+     */
+    public static long upperBound(@NotNull LocalDateTime end) {
+        return Snowflake.maxId(DateUtil.LocalDateTimeToTimestamp(end) + SLACK_MILLIS);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Snowflake生成器监控指标
+ *
+ * <p>
+ * 导出时钟回退次数、等待次数与等待时间、失败次数，用于观察时钟回退对插入延迟的影响。
+ * 指标在采集时才读取生成器，不会提前触发datacenterId和workerId的分配。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 14:40
+ */
+@Component
+public class SnowflakeMetrics implements MeterBinder {
+
+    /**
+     * 指标名称前缀
+     */
+    private static final String PREFIX = "trace.snowflake.clock.backwards";
+
+    /**
+     * redis雪花算法datacenterId和workerId生成处理器
+     */
+    @Resource
+    private RedisSnowflakeHandler redisSnowflakeHandler;
+
+    /**
+     * 绑定监控指标
+     *
+     * @param registry 指标注册器
+     */
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        FunctionCounter.builder(PREFIX, this, value(Snowflake::getClockBackwardsCount))
+                .description("观察到系统时钟回退的次数")
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".failed", this, value(Snowflake::getClockBackwardsFailedCount))
+                .description("因系统时钟回退而生成ID失败的次数")
+                .register(registry);
+        FunctionTimer.builder(PREFIX + ".wait", this,
+                        metrics -> metrics.read(Snowflake::getClockBackwardsWaitCount),
+                        value(Snowflake::getClockBackwardsWaitNanos),
+                        TimeUnit.NANOSECONDS)
+                .description("因系统时钟回退而等待的次数与时间")
+                .register(registry);
+    }
+
+    /**
+     * 将Snowflake的统计值转换为指标值
+     *
+     * @param getter 统计值
+     * @return 指标值
+     */
+    private static @NotNull ToDoubleFunction<SnowflakeMetrics> value(ToLongFunction<Snowflake> getter) {
+        return metrics -> metrics.read(getter);
+    }
+
+    /**
+     * 读取Snowflake的统计值，生成器尚未创建时为0
+     *
+     * @param getter 统计值
+     * @return 统计值
+     */
+    private long read(ToLongFunction<Snowflake> getter) {
+        Snowflake snowflake = redisSnowflakeHandler.currentSnowflake();
+        return snowflake == null ? 0 : getter.applyAsLong(snowflake);
+    }
+
+}
@@ -0,0 +1,313 @@
+package com.refout.trace.datasource.handler.upsert;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.Generator;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.metamodel.mapping.AttributeMapping;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * MySQL多行{@code INSERT ... ON DUPLICATE KEY UPDATE}语句
+ *
+ * <p>
+ * 列由实体元数据得到，一条语句插入多行，主键或唯一键冲突的行按以下规则更新：<br/>
+ * 需要更新的列取插入的值；其余列保持不变，但有逻辑删除列时，已逻辑删除的行视为不存在，所有列取插入的值；<br/>
+ * 逻辑删除列最后赋值，保证前面的条件读到的是原来的值；没有需要赋值的列时为{@code id = id}，即存在则忽略。<br/>
+ * MySQL按表上的任意主键、唯一键判断冲突，冲突字段需要与一个唯一键一致（如{@code ts_config_pk (name, app)}）。
+ * </p>
+ *
+ * @author oo w
+ * @version 1.0
+ * @since 2026/10/17 20:30
+ */
+public final class UpsertStatement {
+
+    /**
+     * 单条语句的最大参数数量
+     */
+    public static final int MAX_PARAMETERS = 65_535;
+
+    /**
+     * 创建时间字段
+     */
+    private static final String CREATE_TIME = "createTime";
+
+    /**
+     * 创建人字段
+     */
+    private static final String CREATE_BY = "createBy";
+
+    /**
+     * 更新时间字段
+     */
+    private static final String UPDATE_TIME = "updateTime";
+
+    /**
+     * 更新人字段
+     */
+    private static final String UPDATE_BY = "updateBy";
+
+    /**
+     * 表名
+     */
+    private final String table;
+
+    /**
+     * 主键列
+     */
+    private final String idColumn;
+
+    /**
+     * 除主键外插入的列
+     */
+    private final List<String> columns;
+
+    /**
+     * 冲突列，冲突时不赋值
+     */
+    private final Set<String> conflictColumns;
+
+    /**
+     * 冲突时取插入值的列
+     */
+    private final Set<String> updateColumns;
+
+    /**
+     * 逻辑删除列，没有时为null
+     */
+    private final String deletedColumn;
+
+    /**
+     * 插入的列对应的实体属性，按实体元数据创建时才有
+     */
+    private final List<Property> properties;
+
+    /**
+     * 构造函数
+     *
+     * @param table           表名
+     * @param idColumn        主键列
+     * @param columns         除主键外插入的列
+     * @param conflictColumns 冲突列
+     * @param updateColumns   冲突时取插入值的列
+     * @param deletedColumn   逻辑删除列，没有时为null
+     */
+    UpsertStatement(String table, String idColumn, List<String> columns, Set<String> conflictColumns,
+                    Set<String> updateColumns, @Nullable String deletedColumn) {
+        this(table, idColumn, columns, conflictColumns, updateColumns, deletedColumn, List.of());
+    }
+
+    private UpsertStatement(String table, String idColumn, List<String> columns, Set<String> conflictColumns,
+                            Set<String> updateColumns, @Nullable String deletedColumn, List<Property> properties) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.columns = List.copyOf(columns);
+        this.conflictColumns = Set.copyOf(conflictColumns);
+        this.updateColumns = Set.copyOf(updateColumns);
+        this.deletedColumn = deletedColumn;
+        this.properties = List.copyOf(properties);
+    }
+
+    /**
+     * 根据实体元数据创建语句
+     *
+     * @param persister      实体持久化器
+     * @param conflictFields 冲突字段
+     * @param updateFields   冲突时更新的字段，为null时更新除冲突字段和创建信息外的全部字段，为空时存在则忽略
+     * @param deletedField   逻辑删除字段，没有时为null
+     * @return 语句
+     * @throws DatasourceException 字段不存在或不是基本类型的字段时抛出异常
+     */
+    public static @NotNull UpsertStatement of(@NotNull AbstractEntityPersister persister,
+                                              @NotNull Collection<String> conflictFields,
+                                              @Nullable Collection<String> updateFields,
+                                              @Nullable String deletedField) {
+        Map<String, Property> byName = new LinkedHashMap<>();
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            AttributeMapping attribute = persister.getAttributeMapping(i);
+            if (!(attribute instanceof BasicValuedModelPart basic)) {
+                throw new DatasourceException("只能批量写入基本类型的字段：" + names[i]);
+            }
+            if (basic.isInsertable()) {
+                byName.put(names[i], new Property(names[i], i, basic));
+            }
+        }
+
+        Set<String> conflictColumns = new LinkedHashSet<>();
+        for (String field : conflictFields) {
+            conflictColumns.add(column(byName, field));
+        }
+        Set<String> updateColumns = new LinkedHashSet<>();
+        if (updateFields == null) {
+            byName.values().stream()
+                    .filter(property -> !CREATE_TIME.equals(property.name()) && !CREATE_BY.equals(property.name()))
+                    .forEach(property -> updateColumns.add(property.column()));
+        } else if (!updateFields.isEmpty()) {
+            for (String field : updateFields) {
+                updateColumns.add(column(byName, field));
+            }
+            if (byName.containsKey(UPDATE_TIME)) {
+                updateColumns.add(column(byName, UPDATE_TIME));
+            }
+            if (byName.containsKey(UPDATE_BY)) {
+                updateColumns.add(column(byName, UPDATE_BY));
+            }
+        }
+        String deletedColumn = deletedField == null ? null : column(byName, deletedField);
+
+        List<Property> properties = List.copyOf(byName.values());
+        return new UpsertStatement(persister.getIdentifierTableName(), persister.getIdentifierColumnNames()[0],
+                properties.stream().map(Property::column).toList(), conflictColumns, updateColumns, deletedColumn,
+                properties);
+    }
+
+    /**
+     * 字段对应的列
+     *
+     * @param byName 字段名到属性的Map
+     * @param field  字段名
+     * @return 列名
+     * @throws DatasourceException 字段不存在时抛出异常
+     */
+    private static String column(@NotNull Map<String, Property> byName, String field) {
+        Property property = byName.get(field);
+        if (property == null) {
+            throw new DatasourceException("字段不存在：" + field);
+        }
+        return property.column();
+    }
+
+    /**
+     * 单条语句最多插入的行数
+     *
+     * @param chunkSize 期望的行数
+     * @return 不超过参数数量限制的行数
+     */
+    public int maxRows(int chunkSize) {
+        return Math.max(1, Math.min(chunkSize, MAX_PARAMETERS / (columns.size() + 1)));
+    }
+
+    /**
+     * 生成插入指定行数的SQL
+     *
+     * @param rows 行数
+     * @return SQL
+     */
+    public @NotNull String sql(int rows) {
+        StringJoiner names = new StringJoiner(", ", "(", ")");
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        names.add(idColumn);
+        placeholders.add("?");
+        for (String column : columns) {
+            names.add(column);
+            placeholders.add("?");
+        }
+
+        StringBuilder sql = new StringBuilder("insert into ").append(table).append(' ').append(names)
+                .append(" values ");
+        String row = placeholders.toString();
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+
+        StringJoiner assignments = new StringJoiner(", ");
+        for (String column : columns) {
+            if (conflictColumns.contains(column) || column.equals(deletedColumn)) {
+                continue;
+            }
+            if (updateColumns.contains(column)) {
+                assignments.add(column + " = values(" + column + ")");
+            } else if (deletedColumn != null) {
+                assignments.add(column + " = case when " + deletedColumn + " <> 0 then values(" + column + ") else "
+                        + column + " end");
+            }
+        }
+        if (deletedColumn != null) {
+            assignments.add(deletedColumn + " = values(" + deletedColumn + ")");
+        }
+        if (assignments.length() == 0) {
+            assignments.add(idColumn + " = " + idColumn);
+        }
+        return sql.append(" on duplicate key update ").append(assignments).toString();
+    }
+
+    /**
+     * 生成一行的参数：主键为空时由实体的主键生成器生成，创建、更新信息为空时填充，
+     * 其余字段按字段的转换器转换为数据库的值
+     *
+     * @param persister 实体持久化器
+     * @param session   会话
+     * @param entity    实体
+     * @param now       当前时间
+     * @param auditor   当前操作人
+     * @return 一行的参数
+     * @throws DatasourceException 实体的主键生成器不支持时抛出异常
+     */
+    public Object @NotNull [] values(@NotNull AbstractEntityPersister persister,
+                                     SharedSessionContractImplementor session, Object entity,
+                                     LocalDateTime now, @Nullable String auditor) {
+        Object[] state = persister.getValues(entity);
+        Object[] values = new Object[properties.size() + 1];
+        Object id = persister.getIdentifier(entity, session);
+        if (id == null) {
+            Generator generator = persister.getGenerator();
+            if (!(generator instanceof IdentifierGenerator identifierGenerator)) {
+                throw new DatasourceException("不支持的主键生成方式：" + persister.getEntityName());
+            }
+            id = identifierGenerator.generate(session, entity);
+        }
+        values[0] = id;
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            Object value = state[property.index()];
+            if (value == null) {
+                value = switch (property.name()) {
+                    case CREATE_TIME, UPDATE_TIME -> now;
+                    case CREATE_BY, UPDATE_BY -> auditor;
+                    default -> null;
+                };
+            }
+            values[i + 1] = property.mapping().getJdbcMapping().convertToRelationalValue(value);
+        }
+        return values;
+    }
+
+    /**
+     * 插入的实体属性
+     *
+     * @param name    字段名
+     * @param index   属性序号
+     * @param mapping 属性映射
+     */
+    private record Property(String name, int index, BasicValuedModelPart mapping) {
+
+        /**
+         * 列名
+         *
+         * @return 列名
+         */
+        String column() {
+            return mapping.getSelectionExpression();
+        }
+
+    }
+
+}
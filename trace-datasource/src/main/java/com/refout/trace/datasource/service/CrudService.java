@@ -3,36 +3,75 @@ package com.refout.trace.datasource.service;
 import com.refout.trace.common.exception.SystemException;
 import com.refout.trace.common.util.Assert;
 import com.refout.trace.common.util.DateUtil;
+import com.refout.trace.common.util.JsonUtil;
+import com.refout.trace.common.util.SpringUtil;
 import com.refout.trace.datasource.annotation.Deleted;
-import com.refout.trace.datasource.annotation.Query;
 import com.refout.trace.datasource.domain.AbstractEntity;
+import com.refout.trace.datasource.domain.query.QueryPlan;
 import com.refout.trace.datasource.domain.query.QueryRequest;
 import com.refout.trace.datasource.domain.query.condition.In;
 import com.refout.trace.datasource.domain.query.condition.Scope;
+import com.refout.trace.datasource.domain.query.page.KeysetCursor;
 import com.refout.trace.datasource.domain.query.page.PageIn;
 import com.refout.trace.datasource.domain.query.page.PageOut;
-import com.refout.trace.datasource.enums.QueryFunc;
+import com.refout.trace.datasource.enums.CountMode;
+import com.refout.trace.datasource.exception.DatasourceException;
+import com.refout.trace.datasource.handler.cache.SecondLevelCacheEvictHandler;
+import com.refout.trace.datasource.handler.count.CountCache;
+import com.refout.trace.datasource.handler.in.InListPredicateBuilder;
+import com.refout.trace.datasource.handler.page.ParallelQueryExecutor;
+import com.refout.trace.datasource.handler.upsert.UpsertStatement;
 import com.refout.trace.datasource.repository.BaseRepository;
-import jakarta.persistence.AttributeConverter;
-import jakarta.persistence.Convert;
-import jakarta.persistence.Transient;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.persister.entity.AbstractEntityPersister;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.ResolvableType;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.KeysetScrollSpecification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-
-import static com.refout.trace.datasource.enums.QueryFunc.LIKE;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * 数据库查询service
@@ -44,6 +83,26 @@ import static com.refout.trace.datasource.enums.QueryFunc.LIKE;
 @SuppressWarnings({"UnusedReturnValue", "unused"})
 public interface CrudService<T extends AbstractEntity, ID extends Serializable> {
 
+    /**
+     * 流式读取时每批读取的行数，也是清空持久化上下文的间隔
+     */
+    int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * 批量保存时每块的大小，与{@code hibernate.jdbc.batch_size}保持一致
+     */
+    int SAVE_CHUNK_SIZE = 500;
+
+    /**
+     * 批量删除时每条语句的ID数量
+     */
+    int DELETE_CHUNK_SIZE = 1000;
+
+    /**
+     * 部分修改时不允许修改的字段：ID和审计字段
+     */
+    Set<String> PATCH_IGNORED = Set.of("id", "createTime", "createBy", "updateTime", "updateBy");
+
     /**
      * 获取对应实体类的Repository
      *
@@ -62,24 +121,132 @@ public interface CrudService<T extends AbstractEntity, ID extends Serializable>
         return repository().getReferenceById(id);
     }
 
+    /**
+     * 获取实体类
+     *
+     * @return 实体类
+     */
+    @SuppressWarnings("unchecked")
+    default Class<T> domainClass() {
+        Class<?> domainClass = ResolvableType.forClass(getClass()).as(CrudService.class).resolveGeneric(0);
+        Assert.notNull(SystemException::new, domainClass, "无法获取实体类");
+        return (Class<T>) domainClass;
+    }
+
     /**
      * 根据ID删除实体对象
      *
      * @param id 实体对象的ID
      */
+    @Transactional
     default void deleteById(ID id) {
         Assert.notNull(SystemException::new, id, "参数为空");
-        repository().deleteById(id);
+        deleteAllById(List.of(id));
     }
 
     /**
      * 根据ID列表批量删除实体对象
+     * <p>
+     * 不加载实体，按{@link #DELETE_CHUNK_SIZE}分块执行：有{@link Deleted}字段且以{@link SQLRestriction}过滤已删除数据的实体执行
+     * {@code update ... set deleted = true, updateTime, updateBy where id in (...)}逻辑删除，
+     * 否则执行{@code delete ... where id in (...)}。
+     * 没有{@link SQLRestriction}的实体查询时看得到已删除的数据，因此仍然物理删除。
+     * 删除后只清除这些ID的二级缓存和实体类的总数缓存，并在提交后通知其他节点清除这些ID的二级缓存。
      *
      * @param ids 实体对象的ID列表
      */
+    @Transactional
     default void deleteAllById(List<ID> ids) {
         Assert.noNullElements(SystemException::new, ids, "参数为空");
-        repository().deleteAllById(ids);
+        Class<T> domainClass = domainClass();
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        String entityName = entityManager.getMetamodel().entity(domainClass).getName();
+        String deletedField = domainClass.isAnnotationPresent(SQLRestriction.class) ? deletedField(domainClass) : null;
+        String jpql = deletedField == null ?
+                "delete from " + entityName + " e where e.id in :ids" :
+                "update " + entityName + " e set e." + deletedField + " = :deleted, e.updateTime = :updateTime, " +
+                        "e.updateBy = :updateBy where e.id in :ids";
+
+        List<ID> distinct = ids.stream().distinct().toList();
+        String auditor = deletedField == null ? null : currentAuditor();
+        for (int from = 0; from < distinct.size(); from += DELETE_CHUNK_SIZE) {
+            Query query = entityManager.createQuery(jpql)
+                    .setParameter("ids", distinct.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinct.size())));
+            if (deletedField != null) {
+                query.setParameter("deleted", true)
+                        .setParameter("updateTime", LocalDateTime.now())
+                        .setParameter("updateBy", auditor);
+            }
+            query.executeUpdate();
+        }
+
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        distinct.forEach(id -> cache.evict(domainClass, id));
+        SpringUtil.getBean(SecondLevelCacheEvictHandler.class).publish(domainClass, distinct);
+        CountCache.evict(domainClass);
+    }
+
+    /**
+     * 根据ID修改实体对象的部分字段
+     * <p>
+     * 不加载实体，字段名按实体元数据校验，字段值按字段类型转换后执行一条
+     * {@code update ... set 修改的字段, updateTime, updateBy where id = ?}，
+     * 已逻辑删除的实体不会被修改。修改后清除该ID的二级缓存（并通知其他节点）和实体类的总数缓存。
+     *
+     * @param id     实体对象的ID
+     * @param fields 字段名到新值的Map
+     * @throws DatasourceException 字段不存在、不允许修改、值无法转换或实体不存在时抛出异常
+     */
+    @Transactional
+    default void patch(ID id, Map<String, Object> fields) {
+        Assert.notNull(SystemException::new, id, "参数为空");
+        Assert.notEmpty(SystemException::new, fields, "参数为空");
+        Class<T> domainClass = domainClass();
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        EntityType<T> entityType = entityManager.getMetamodel().entity(domainClass);
+        String deletedField = deletedField(domainClass);
+
+        StringBuilder jpql = new StringBuilder("update ").append(entityType.getName()).append(" e set ");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        fields.forEach((name, value) -> {
+            Assert.isTrue(DatasourceException::new, !PATCH_IGNORED.contains(name) && !name.equals(deletedField),
+                    "字段不允许修改：" + name);
+            Attribute<? super T, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(name);
+            } catch (IllegalArgumentException e) {
+                throw new DatasourceException("字段不存在：" + name);
+            }
+            Assert.isTrue(DatasourceException::new,
+                    attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC &&
+                            attribute.getJavaMember() instanceof Field,
+                    "只能修改基本类型的字段：" + name);
+            Object converted;
+            try {
+                converted = value == null ? null : JsonUtil.mapper.convertValue(value,
+                        JsonUtil.mapper.constructType(((Field) attribute.getJavaMember()).getGenericType()));
+            } catch (IllegalArgumentException e) {
+                throw new DatasourceException("字段值无法转换：" + name, e);
+            }
+            String parameter = "p" + parameters.size();
+            jpql.append("e.").append(name).append(" = :").append(parameter).append(", ");
+            parameters.put(parameter, converted);
+        });
+        jpql.append("e.updateTime = :updateTime, e.updateBy = :updateBy where e.id = :id");
+        if (deletedField != null) {
+            jpql.append(" and e.").append(deletedField).append(" = false");
+        }
+
+        Query query = entityManager.createQuery(jpql.toString())
+                .setParameter("updateTime", LocalDateTime.now())
+                .setParameter("updateBy", currentAuditor())
+                .setParameter("id", id);
+        parameters.forEach(query::setParameter);
+        Assert.isTrue(DatasourceException::new, query.executeUpdate() > 0, "数据不存在");
+
+        entityManager.getEntityManagerFactory().getCache().evict(domainClass, id);
+        SpringUtil.getBean(SecondLevelCacheEvictHandler.class).publish(domainClass, List.of(id));
+        CountCache.evict(domainClass);
     }
 
     /**
@@ -95,105 +262,455 @@ public interface CrudService<T extends AbstractEntity, ID extends Serializable>
 
     /**
      * 批量保存实体对象
+     * <p>
+     * 超过{@link #SAVE_CHUNK_SIZE}条时分块保存，每块保存后flush并将这一块保存的实体移出持久化上下文，
+     * 配合{@code hibernate.jdbc.batch_size}以JDBC批量插入执行，持久化上下文不会随数据量增长。
+     * 只移出本次保存的实体，调用方事务中其他托管实体不受影响；分块保存后返回的实体对象是游离的。
      *
      * @param ts 实体对象列表
      * @return 保存后的实体对象列表
      */
+    @Transactional
     default List<T> saveAll(List<T> ts) {
         Assert.noNullElements(SystemException::new, ts, "参数为空");
-        return repository().saveAll(ts);
+        if (ts.size() <= SAVE_CHUNK_SIZE) {
+            return repository().saveAll(ts);
+        }
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        List<T> saved = new ArrayList<>(ts.size());
+        for (int from = 0; from < ts.size(); from += SAVE_CHUNK_SIZE) {
+            List<T> chunk = repository().saveAll(ts.subList(from, Math.min(from + SAVE_CHUNK_SIZE, ts.size())));
+            repository().flush();
+            chunk.forEach(entityManager::detach);
+            saved.addAll(chunk);
+        }
+        return saved;
+    }
+
+    /**
+     * 批量插入或更新实体对象，冲突时更新除冲突字段和创建信息外的全部字段
+     *
+     * @param ts             实体对象列表
+     * @param conflictFields 冲突字段，需要与表上的一个唯一键一致
+     * @return 影响的行数，含义见{@link #upsertAll(List, Collection, Collection)}
+     * @see #upsertAll(List, Collection, Collection)
+     */
+    @Transactional
+    default int upsertAll(List<T> ts, Collection<String> conflictFields) {
+        return upsertAll(ts, conflictFields, null);
+    }
+
+    /**
+     * 批量插入或更新实体对象
+     * <p>
+     * 按实体元数据生成多行{@code INSERT ... ON DUPLICATE KEY UPDATE}，每{@link #SAVE_CHUNK_SIZE}行一条语句，
+     * 代替逐行的存在性检查加保存。新行的ID由实体的主键生成器（Snowflake）生成，创建、更新信息为空时自动填充，
+     * 已逻辑删除的冲突行视为不存在。传入的实体对象不会被修改。
+     * 写入后清除实体类的二级缓存（并通知其他节点）和总数缓存。
+     *
+     * @param ts             实体对象列表
+     * @param conflictFields 冲突字段，需要与表上的一个唯一键一致
+     * @param updateFields   冲突时更新的字段，为null时更新除冲突字段和创建信息外的全部字段，为空时存在则忽略
+     * @return 影响的行数（MySQL：插入的行计1，更新的行计2；未改变的行在连接参数{@code useAffectedRows=true}时计0，
+     * 否则（MySQL Connector/J的默认值）计1），不能据此区分插入和未改变的行
+     * @throws DatasourceException 字段不存在或实体的主键生成器不支持时抛出异常
+     */
+    @Transactional
+    default int upsertAll(List<T> ts, Collection<String> conflictFields, @Nullable Collection<String> updateFields) {
+        Assert.noNullElements(SystemException::new, ts, "参数为空");
+        Assert.notEmpty(SystemException::new, conflictFields, "参数为空");
+        if (ts.isEmpty()) {
+            return 0;
+        }
+        Class<T> domainClass = domainClass();
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        // 先写入持久化上下文中未提交的修改，避免与本次语句交错
+        entityManager.flush();
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(domainClass);
+        UpsertStatement statement = UpsertStatement.of(persister, conflictFields, updateFields,
+                deletedField(domainClass));
+
+        JdbcTemplate jdbcTemplate = SpringUtil.getBean(JdbcTemplate.class);
+        LocalDateTime now = LocalDateTime.now();
+        String auditor = currentAuditor();
+        int chunkSize = statement.maxRows(SAVE_CHUNK_SIZE);
+        int affected = 0;
+        for (int from = 0; from < ts.size(); from += chunkSize) {
+            List<T> chunk = ts.subList(from, Math.min(from + chunkSize, ts.size()));
+            List<Object> args = new ArrayList<>();
+            for (T t : chunk) {
+                args.addAll(Arrays.asList(statement.values(persister, session, t, now, auditor)));
+            }
+            affected += jdbcTemplate.update(statement.sql(chunk.size()), args.toArray());
+        }
+
+        entityManager.getEntityManagerFactory().getCache().evict(domainClass);
+        SpringUtil.getBean(SecondLevelCacheEvictHandler.class).publish(domainClass, null);
+        CountCache.evict(domainClass);
+        return affected;
     }
 
     /**
      * 分页查询实体对象
+     * <p>
+     * 指定了{@link PageIn#fields()}时只查询这些字段（以及id），每条数据以字段名到值的Map返回，不创建托管实体；
+     * 否则返回完整的实体对象。
      *
      * @param pageIn 分页查询条件
      * @return 分页查询结果
      */
-    default <Q extends QueryRequest<T>> PageOut<T> getPage(@NotNull PageIn<T, Q> pageIn) {
+    default <Q extends QueryRequest<T>> PageOut<?> getPage(@NotNull PageIn<T, Q> pageIn) {
         Q condition = pageIn.query();
         if (condition == null) {
             return null;
         }
         T data = condition.getData();
+        Specification<T> specification = specification(condition);
+        // 总数缓存键在查询前按原始条件生成
+        String countKey = CountCache.key(data.getClass(), condition);
 
-        Class<?> clazz = data.getClass();
-        // 创建Specification对象，用于构建查询条件
-        Specification<T> specification = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        if (pageIn.projection()) {
+            @SuppressWarnings("unchecked")
+            Class<T> domainClass = (Class<T>) data.getClass();
+            return getProjectionPage(pageIn, specification, domainClass, countKey);
+        }
 
-            ReflectionUtils.doWithFields(clazz, field -> {
-                field.setAccessible(true);
-                Object value = field.get(data);
-                if (value == null) {
-                    return;
-                }
+        if (pageIn.keyset()) {
+            return getKeysetPage(pageIn, specification, data.getClass());
+        }
 
-                Transient transientAnnotation = field.getDeclaredAnnotation(Transient.class);
-                if (transientAnnotation != null) {
-                    return;
-                }
-                Deleted deleted = field.getDeclaredAnnotation(Deleted.class);
-                if (deleted != null) {
-                    field.setBoolean(data, false);
+        Pageable pageable = pageIn.pageable();
+        return switch (pageIn.countMode()) {
+            case EXACT -> {
+                ParallelQueryExecutor parallel = SpringUtil.getBean(ParallelQueryExecutor.class);
+                if (parallel.enabled()) {
+                    // 数据和总数在各自的只读事务中并行查询
+                    yield parallel.both(() -> getWindow(specification, pageable).getContent(),
+                            () -> repository().count(specification),
+                            (content, total) -> exactPage(content, pageable, total));
                 }
-                Convert convert = field.getDeclaredAnnotation(Convert.class);
-                if (convert != null) {
-                    try {
-                        @SuppressWarnings("unchecked")
-                        Class<? extends AttributeConverter<Object, Object>> converter = convert.converter();
-                        AttributeConverter<Object, Object> attributeConverter =
-                                converter.getDeclaredConstructor().newInstance();
-                        value = attributeConverter.convertToDatabaseColumn(value);
-                        System.out.println();
-                    } catch (Exception ignore) {
+                // 调用Repository的findAll方法进行分页查询
+                Page<T> page = repository().findAll(specification, pageable);
+                yield PageOut.of(
+                        page.getContent(), page.getNumber(), page.getSize(),
+                        page.getTotalElements(), page.getTotalPages()
+                );
+            }
+            case NONE -> {
+                Window<T> window = getWindow(specification, pageable);
+                yield PageOut.slice(window.getContent(), pageable.getPageNumber(), pageable.getPageSize(),
+                        window.hasNext());
+            }
+            case ESTIMATED -> {
+                Window<T> window = getWindow(specification, pageable);
+                long total = estimatedTotal(countKey, specification, pageable, window.size(), window.hasNext());
+                yield PageOut.estimated(window.getContent(), pageable.getPageNumber(), pageable.getPageSize(),
+                        total, window.hasNext());
+            }
+        };
+
+    }
+
+    /**
+     * 获取当前操作人
+     *
+     * @return 当前操作人，没有审计配置时返回null
+     */
+    private static @Nullable String currentAuditor() {
+        return SpringUtil.getBeanProvider(AuditorAware.class).stream()
+                .findFirst()
+                .flatMap(auditorAware -> ((AuditorAware<?>) auditorAware).getCurrentAuditor())
+                .map(Object::toString)
+                .orElse(null);
+    }
+
+    /**
+     * 获取实体类中的逻辑删除字段
+     *
+     * @param domainClass 实体类
+     * @return 逻辑删除字段名，没有时返回null
+     */
+    private static @Nullable String deletedField(Class<?> domainClass) {
+        String[] name = new String[1];
+        ReflectionUtils.doWithFields(domainClass, field -> name[0] = field.getName(),
+                field -> field.isAnnotationPresent(Deleted.class));
+        return name[0];
+    }
 
+    /**
+     * 以流的方式读取全部符合条件的实体对象，用于导出
+     *
+     * <p>
+     * 按{@link #STREAM_FETCH_SIZE}分批从数据库游标读取，每读取一批清空一次持久化上下文，
+     * 内存占用与总行数无关。读取到的实体对象是只读且游离的。
+     * 流必须在事务内消费并关闭，MySQL需要在连接参数中开启{@code useCursorFetch=true}才会按批读取。
+     * </p>
+     *
+     * @param condition 查询条件，data不能为空，用于确定实体类
+     * @return 实体对象流
+     */
+    default Stream<T> stream(@NotNull QueryRequest<T> condition) {
+        T data = condition.getData();
+        Assert.notNull(SystemException::new, data, "参数为空");
+        @SuppressWarnings("unchecked")
+        Class<T> domainClass = (Class<T>) data.getClass();
+
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        query.where(specification(condition).toPredicate(root, query, criteriaBuilder));
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        AtomicLong rows = new AtomicLong();
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(it -> {
+                    if (rows.incrementAndGet() % STREAM_FETCH_SIZE == 0) {
+                        entityManager.clear();
                     }
-                }
-                // 获取字段上的Query注解，用于指定查询方式
-                Query queryAnnotation = field.getDeclaredAnnotation(Query.class);
+                });
+    }
 
-                // 根据Query注解和字段值构建查询条件
-                Predicate predicate = predicate(criteriaBuilder, root.get(field.getName()), queryAnnotation, value);
-                predicates.add(predicate);
-            });
+    /**
+     * 根据查询条件创建Specification对象
+     *
+     * @param condition 查询条件
+     * @return Specification对象
+     */
+    private @NotNull Specification<T> specification(@NotNull QueryRequest<T> condition) {
+        T data = condition.getData();
+        QueryPlan plan = QueryPlan.of(data.getClass());
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            plan.predicates(data, root, criteriaBuilder, predicates);
 
             predicate(predicates, criteriaBuilder, root, condition);
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
+    }
 
-        // 调用Repository的findAll方法进行分页查询
-        Page<T> page = repository().findAll(specification, pageIn.pageable());
-        return PageOut.of(
-                page.getContent(), page.getNumber(), page.getSize(),
-                page.getTotalElements(), page.getTotalPages()
-        );
+    /**
+     * 按偏移量查询一页数据，多查询一条用于判断是否有下一页，不查询总数
+     *
+     * @param specification 查询条件
+     * @param pageable      分页参数
+     * @return 一页数据
+     */
+    private Window<T> getWindow(Specification<T> specification, @NotNull Pageable pageable) {
+        return repository().findBy(specification, query -> query
+                .sortBy(pageable.getSort())
+                .limit(pageable.getPageSize())
+                .scroll(ScrollPosition.offset(pageable.getOffset())));
+    }
+
+    /**
+     * 根据一页数据和精确总数创建分页查询结果
+     *
+     * @param content  一页数据
+     * @param pageable 分页参数
+     * @param total    总数
+     * @param <R>      数据类型
+     * @return 分页查询结果
+     */
+    private static <R> @NotNull PageOut<R> exactPage(List<R> content, Pageable pageable, long total) {
+        Page<R> page = new PageImpl<>(content, pageable, total);
+        return PageOut.of(content, page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
 
+    /**
+     * 估算总数：最后一页可以直接得到精确总数并刷新缓存，否则取缓存的总数，缓存失效时查询一次总数
+     *
+     * @param key           总数缓存键
+     * @param specification 查询条件
+     * @param pageable      分页参数
+     * @param size          当前页的数据条数
+     * @param hasNext       是否有下一页
+     * @return 估算的总数
+     */
+    private long estimatedTotal(String key, Specification<T> specification, @NotNull Pageable pageable,
+                                int size, boolean hasNext) {
+        if (!hasNext && (size > 0 || pageable.getOffset() == 0)) {
+            long total = pageable.getOffset() + size;
+            CountCache.put(key, total);
+            return total;
+        }
+        return CountCache.get(key, () -> repository().count(specification));
     }
 
     /**
-     * 根据Query注解和字段值构建查询条件
+     * 只查询部分字段的分页查询，支持offset和keyset模式以及全部总数模式
      *
-     * @param criteriaBuilder CriteriaBuilder对象
-     * @param expression      查询表达式
-     * @param query           Query注解
-     * @param value           字段值
-     * @return 构建的查询条件
+     * @param pageIn        分页查询条件
+     * @param specification 查询条件
+     * @param domainClass   实体类
+     * @param countKey      总数缓存键
+     * @return 分页查询结果，每条数据为字段名到值的Map
      */
-    private Predicate predicate(
-            CriteriaBuilder criteriaBuilder, Expression<String> expression, Query query, Object value) {
-        QueryFunc func = query == null ? LIKE : query.value();
-        return switch (func) {
-            case LIKE -> criteriaBuilder.like(expression, "%" + value + "%");
-            case LEFT_LIKE -> criteriaBuilder.like(expression, "%" + value);
-            case RIGHT_LIKE -> criteriaBuilder.like(expression, value + "%");
-            case NOT_LIKE -> criteriaBuilder.notLike(expression, "%" + value + "%");
-            case EQ -> criteriaBuilder.equal(expression, value);
-            case NOT_EQ -> criteriaBuilder.notEqual(expression, value);
+    private @NotNull PageOut<Map<String, Object>> getProjectionPage(
+            @NotNull PageIn<T, ?> pageIn, Specification<T> specification, Class<T> domainClass, String countKey) {
+        EntityManager entityManager = SpringUtil.getBean(EntityManager.class);
+        List<String> fields = projectionFields(entityManager, domainClass, pageIn.fields());
+        int size = pageIn.size();
+
+        if (pageIn.keyset()) {
+            Sort sort = pageIn.keysetSort();
+            KeysetScrollPosition position = KeysetCursor.decode(pageIn.cursor(), domainClass, sort);
+            Specification<T> keyset = new KeysetScrollSpecification<>(position, sort,
+                    JpaEntityInformationSupport.getEntityInformation(domainClass, entityManager));
+            List<String> selection = new ArrayList<>(fields);
+            sort.forEach(order -> {
+                if (!selection.contains(order.getProperty())) {
+                    selection.add(order.getProperty());
+                }
+            });
+            List<Tuple> rows = tuples(entityManager, domainClass, specification.and(keyset), selection, sort,
+                    0, size + 1);
+            String cursor = null;
+            if (rows.size() > size) {
+                rows = rows.subList(0, size);
+                if (!rows.isEmpty()) {
+                    Map<String, Object> keys = new LinkedHashMap<>();
+                    Tuple last = rows.getLast();
+                    sort.forEach(order -> keys.put(order.getProperty(), last.get(order.getProperty())));
+                    cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+                }
+            }
+            return PageOut.keyset(toMaps(rows, fields), size, cursor);
+        }
+
+        Pageable pageable = pageIn.pageable();
+        CountMode countMode = pageIn.countMode();
+        ParallelQueryExecutor parallel = SpringUtil.getBean(ParallelQueryExecutor.class);
+        if (countMode == CountMode.EXACT && parallel.enabled()) {
+            // 数据和总数在各自的只读事务中并行查询
+            return parallel.both(
+                    () -> toMaps(tuples(entityManager, domainClass, specification, fields, pageable.getSort(),
+                            pageable.getOffset(), size), fields),
+                    () -> repository().count(specification),
+                    (content, total) -> exactPage(content, pageable, total));
+        }
+        List<Tuple> rows = tuples(entityManager, domainClass, specification, fields, pageable.getSort(),
+                pageable.getOffset(), countMode == CountMode.EXACT ? size : size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Map<String, Object>> content = toMaps(hasNext ? rows.subList(0, size) : rows, fields);
+        return switch (countMode) {
+            case EXACT -> {
+                Page<Map<String, Object>> page = PageableExecutionUtils.getPage(content, pageable,
+                        () -> repository().count(specification));
+                yield PageOut.of(content, page.getNumber(), page.getSize(), page.getTotalElements(),
+                        page.getTotalPages());
+            }
+            case NONE -> PageOut.slice(content, pageable.getPageNumber(), pageable.getPageSize(), hasNext);
+            case ESTIMATED -> {
+                long total = estimatedTotal(countKey, specification, pageable, content.size(), hasNext);
+                yield PageOut.estimated(content, pageable.getPageNumber(), pageable.getPageSize(), total, hasNext);
+            }
         };
     }
 
+    /**
+     * 校验需要返回的字段并去重，id总是作为第一个字段返回
+     *
+     * @param entityManager 实体管理器
+     * @param domainClass   实体类
+     * @param fields        需要返回的字段
+     * @return 去重后的字段列表
+     * @throws DatasourceException 字段不存在或不是基本类型的字段时抛出异常
+     */
+    private static @NotNull List<String> projectionFields(
+            @NotNull EntityManager entityManager, Class<?> domainClass, @NotNull List<String> fields) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(domainClass);
+        Set<String> distinct = new LinkedHashSet<>();
+        distinct.add(PageIn.KEYSET_ID);
+        for (String field : fields) {
+            Attribute<?, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(field);
+            } catch (IllegalArgumentException e) {
+                throw new DatasourceException("字段不存在：" + field);
+            }
+            Assert.isTrue(DatasourceException::new,
+                    attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC,
+                    "只能查询基本类型的字段：" + field);
+            distinct.add(field);
+        }
+        return new ArrayList<>(distinct);
+    }
+
+    /**
+     * 以元组查询指定字段，结果不是托管实体
+     *
+     * @param entityManager 实体管理器
+     * @param domainClass   实体类
+     * @param specification 查询条件
+     * @param fields        查询的字段
+     * @param sort          排序
+     * @param offset        偏移量
+     * @param limit         最大条数
+     * @return 元组列表，元素别名为字段名
+     */
+    private static <E> List<Tuple> tuples(@NotNull EntityManager entityManager, Class<E> domainClass,
+                                          @NotNull Specification<E> specification, @NotNull List<String> fields,
+                                          Sort sort, long offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<E> root = query.from(domainClass);
+        query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field).alias(field)).toList());
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 将元组转换为字段名到值的Map
+     *
+     * @param rows   元组列表
+     * @param fields 返回的字段
+     * @return Map列表
+     */
+    private static @NotNull List<Map<String, Object>> toMaps(@NotNull List<Tuple> rows, List<String> fields) {
+        List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>(fields.size() * 2);
+            fields.forEach(field -> map.put(field, row.get(field)));
+            maps.add(map);
+        }
+        return maps;
+    }
+
+    /**
+     * keyset分页查询，按游标定位到上一页最后一条记录之后，不查询总数
+     *
+     * @param pageIn        分页查询条件
+     * @param specification 查询条件
+     * @param entityClass   实体类
+     * @return 分页查询结果
+     */
+    private @NotNull PageOut<T> getKeysetPage(
+            @NotNull PageIn<T, ?> pageIn, Specification<T> specification, Class<?> entityClass) {
+        Sort sort = pageIn.keysetSort();
+        KeysetScrollPosition position = KeysetCursor.decode(pageIn.cursor(), entityClass, sort);
+        Window<T> window = repository().findBy(specification,
+                query -> query.sortBy(sort).limit(pageIn.size()).scroll(position));
+        String cursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            cursor = KeysetCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        return PageOut.keyset(window.getContent(), pageIn.size(), cursor);
+    }
+
     /**
      * 根据查询条件生成谓词
      *
@@ -208,10 +725,7 @@ public interface CrudService<T extends AbstractEntity, ID extends Serializable>
             List<Predicate> predicates, CriteriaBuilder criteriaBuilder, Root<T> root, @NotNull Q condition) {
         List<In> ins = condition.getIns();
         if (ins != null && !ins.isEmpty()) {
-            List<Predicate> list = ins.stream()
-                    .map(in -> root.get(in.getColumnName()).in(in.getIn()))
-                    .toList();
-            predicates.addAll(list);
+            predicates.addAll(SpringUtil.getBean(InListPredicateBuilder.class).predicates(criteriaBuilder, root, ins));
         }
         List<Scope> scopes = condition.getScopes();
         if (scopes != null && !scopes.isEmpty()) {
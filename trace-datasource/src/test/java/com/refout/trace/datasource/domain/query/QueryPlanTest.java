@@ -0,0 +1,79 @@
+package com.refout.trace.datasource.domain.query;
+
+import com.refout.trace.datasource.annotation.Query;
+import com.refout.trace.datasource.domain.AbstractEntity;
+import com.refout.trace.datasource.enums.QueryFunc;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlanTest {
+
+    @Getter
+    @Setter
+    @Accessors(chain = true)
+    static class TestEntity extends AbstractEntity {
+
+        private static final String IGNORED = "ignored";
+
+        private String name;
+
+        @Query(QueryFunc.EQ)
+        private String code;
+
+    }
+
+    /**
+     * 记录调用的CriteriaBuilder方法名和参数
+     */
+    private final List<String> calls = new ArrayList<>();
+
+    private final Predicate predicate = stub(Predicate.class, null);
+
+    private final Root<?> root = stub(Root.class, stub(Path.class, null));
+
+    private final CriteriaBuilder criteriaBuilder = stub(CriteriaBuilder.class, predicate);
+
+    @SuppressWarnings("unchecked")
+    private <S> S stub(Class<?> type, Object result) {
+        return (S) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (type == CriteriaBuilder.class) {
+                calls.add(method.getName() + ":" + args[1]);
+            }
+            return result;
+        });
+    }
+
+    @Test
+    void testPlanIsCachedPerClass() {
+        assertSame(QueryPlan.of(TestEntity.class), QueryPlan.of(TestEntity.class));
+        // id、createTime、createBy、updateTime、updateBy、deleted、name、code，不包含静态字段和@Transient字段
+        assertEquals(8, QueryPlan.of(TestEntity.class).size());
+    }
+
+    @Test
+    void testPredicatesForNonNullFields() {
+        TestEntity entity = new TestEntity().setName("trace").setCode("T1");
+        entity.setDeleted(true);
+        List<Predicate> predicates = new ArrayList<>();
+        QueryPlan.of(TestEntity.class).predicates(entity, root, criteriaBuilder, predicates);
+
+        assertEquals(3, predicates.size());
+        assertTrue(calls.contains("equal:false"), "总是只查询未删除的数据");
+        assertTrue(calls.contains("like:%trace%"));
+        assertTrue(calls.contains("equal:T1"));
+        assertTrue(entity.isDeleted(), "查询不修改查询条件");
+    }
+
+}
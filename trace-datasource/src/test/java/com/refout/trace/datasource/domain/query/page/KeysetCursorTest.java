@@ -0,0 +1,63 @@
+package com.refout.trace.datasource.domain.query.page;
+
+import com.refout.trace.datasource.domain.AbstractEntity;
+import com.refout.trace.datasource.domain.query.QueryRequest;
+import com.refout.trace.datasource.enums.PageMode;
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    static class TestEntity extends AbstractEntity {
+    }
+
+    private static final Sort SORT = new PageIn<TestEntity, QueryRequest<TestEntity>>(
+            1, 10, List.of(new OrderBy(Sort.Direction.DESC, "createTime")), null, PageMode.KEYSET, null, null, null
+    ).keysetSort();
+
+    @Test
+    void testKeysetSortEndsWithId() {
+        assertEquals(Sort.by(Sort.Order.desc("createTime"), Sort.Order.desc("id")), SORT);
+        PageIn<TestEntity, QueryRequest<TestEntity>> pageIn = new PageIn<>(1, 10, null, null);
+        assertFalse(pageIn.keyset());
+        assertEquals(Sort.by(Sort.Order.desc("id")), new PageIn<TestEntity, QueryRequest<TestEntity>>(
+                1, 10, null, null, PageMode.KEYSET, null, null, null).keysetSort());
+        assertEquals(Sort.by(Sort.Order.asc("id")), new PageIn<TestEntity, QueryRequest<TestEntity>>(
+                1, 10, List.of(new OrderBy(Sort.Direction.ASC, "id")), null, PageMode.KEYSET, null, null, null).keysetSort());
+    }
+
+    @Test
+    void testRoundTrip() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createTime", LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000_000));
+        keys.put("id", 1234567890123456789L);
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(keys));
+
+        KeysetScrollPosition position = KeysetCursor.decode(cursor, TestEntity.class, SORT);
+        assertEquals(keys, position.getKeys());
+        assertTrue(position.scrollsForward());
+    }
+
+    @Test
+    void testFirstPage() {
+        assertTrue(KeysetCursor.decode(null, TestEntity.class, SORT).isInitial());
+    }
+
+    @Test
+    void testInvalidCursor() {
+        assertThrows(DatasourceException.class, () -> KeysetCursor.decode("not a cursor", TestEntity.class, SORT));
+        String other = KeysetCursor.encode(ScrollPosition.forward(Map.of("id", 1L)));
+        assertThrows(DatasourceException.class, () -> KeysetCursor.decode(other, TestEntity.class, SORT));
+    }
+
+}
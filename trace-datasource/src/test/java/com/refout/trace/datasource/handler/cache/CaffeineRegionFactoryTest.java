@@ -0,0 +1,32 @@
+package com.refout.trace.datasource.handler.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineRegionFactoryTest {
+
+    @Test
+    void testEntityRegionBoundedAndExpiring() {
+        CaffeineConfiguration<Object, Object> configuration =
+                CaffeineRegionFactory.configuration("com.refout.Config", 100, Duration.ofSeconds(30));
+        assertFalse(configuration.isStoreByValue());
+        assertEquals(OptionalLong.of(100), configuration.getMaximumSize());
+        assertEquals(OptionalLong.of(Duration.ofSeconds(30).toNanos()), configuration.getExpireAfterWrite());
+    }
+
+    @Test
+    void testTimestampsRegionNeverEvicted() {
+        CaffeineConfiguration<Object, Object> configuration = CaffeineRegionFactory.configuration(
+                "prefix." + RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 100, Duration.ofSeconds(30));
+        assertFalse(configuration.isStoreByValue());
+        assertTrue(configuration.getMaximumSize().isEmpty());
+        assertTrue(configuration.getExpireAfterWrite().isEmpty());
+    }
+
+}
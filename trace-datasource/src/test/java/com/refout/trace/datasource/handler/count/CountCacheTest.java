@@ -0,0 +1,56 @@
+package com.refout.trace.datasource.handler.count;
+
+import com.refout.trace.datasource.domain.AbstractEntity;
+import com.refout.trace.datasource.domain.query.QueryRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountCacheTest {
+
+    static class TestEntity extends AbstractEntity {
+    }
+
+    private static QueryRequest<String> condition(String data) {
+        QueryRequest<String> condition = new QueryRequest<>();
+        condition.setData(data);
+        return condition;
+    }
+
+    @Test
+    void testCountedOncePerCondition() {
+        AtomicInteger counts = new AtomicInteger();
+        String key = CountCache.key(CountCacheTest.class, condition("a"));
+        assertEquals(10, CountCache.get(key, () -> counts.incrementAndGet() * 10L));
+        assertEquals(10, CountCache.get(CountCache.key(CountCacheTest.class, condition("a")),
+                () -> counts.incrementAndGet() * 10L));
+        assertEquals(1, counts.get());
+
+        assertEquals(20, CountCache.get(CountCache.key(CountCacheTest.class, condition("b")),
+                () -> counts.incrementAndGet() * 10L));
+        assertEquals(2, counts.get());
+    }
+
+    @Test
+    void testPutAndEvict() {
+        String key = CountCache.key(String.class, condition("c"));
+        CountCache.put(key, 5);
+        assertEquals(5, CountCache.get(key, () -> 6));
+        CountCache.evict(String.class);
+        assertEquals(6, CountCache.get(key, () -> 6));
+    }
+
+    @Test
+    void testKeyDistinguishesDeleted() {
+        TestEntity deleted = new TestEntity();
+        deleted.setDeleted(true);
+        QueryRequest<TestEntity> condition = new QueryRequest<>();
+        condition.setData(deleted);
+        String key = CountCache.key(TestEntity.class, condition);
+        condition.getData().setDeleted(false);
+        assertNotEquals(key, CountCache.key(TestEntity.class, condition));
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.refout.trace.datasource.handler.in;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InListPredicateBuilderTest {
+
+    private static List<Object> values(int size) {
+        return IntStream.range(0, size).<Object>mapToObj(i -> (long) i).toList();
+    }
+
+    @Test
+    void testStrategyBySize() {
+        assertEquals(InListStrategy.INLINE, InListStrategy.of(64, 64, 1024, true));
+        assertEquals(InListStrategy.PADDED, InListStrategy.of(65, 64, 1024, true));
+        assertEquals(InListStrategy.PADDED, InListStrategy.of(1024, 64, 1024, true));
+        assertEquals(InListStrategy.TEMP_TABLE, InListStrategy.of(1025, 64, 1024, true));
+        assertEquals(InListStrategy.PADDED, InListStrategy.of(50_000, 64, 1024, false));
+    }
+
+    @Test
+    void testPadToPowerOfTwo() {
+        List<Object> padded = InListPredicateBuilder.pad(values(100), 1024);
+        assertEquals(128, padded.size());
+        assertEquals(values(100), padded.subList(0, 100));
+        assertTrue(padded.subList(100, 128).stream().allMatch(value -> value.equals(99L)));
+
+        assertEquals(64, InListPredicateBuilder.pad(values(64), 1024).size());
+        assertEquals(1, InListPredicateBuilder.pad(values(1), 1024).size());
+    }
+
+    @Test
+    void testPadNeverExceedsMax() {
+        assertEquals(1000, InListPredicateBuilder.pad(values(700), 1000).size());
+        assertEquals(1500, InListPredicateBuilder.pad(values(1500), 1000).size());
+    }
+
+    @Test
+    void testColumnType() {
+        assertEquals("bigint", InListPredicateBuilder.columnType(Long.class));
+        assertEquals("bigint", InListPredicateBuilder.columnType(int.class));
+        assertEquals("varchar(1024)", InListPredicateBuilder.columnType(String.class));
+        assertNull(InListPredicateBuilder.columnType(Boolean.class));
+    }
+
+    @Test
+    void testLongStringDoesNotFitColumn() {
+        String max = "a".repeat(InListPredicateBuilder.STRING_COLUMN_LENGTH);
+        assertTrue(InListPredicateBuilder.fitsColumn(List.of(max, 1L)));
+        assertFalse(InListPredicateBuilder.fitsColumn(List.of("a", max + "a")));
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.refout.trace.datasource.handler.page;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelQueryExecutorTest {
+
+    private final AtomicInteger transactions = new AtomicInteger();
+
+    private final ParallelQueryExecutor executor = new ParallelQueryExecutor(new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            assertTrue(definition.isReadOnly());
+            transactions.incrementAndGet();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    });
+
+    private ParallelQueryExecutor executor(int maxConnections) {
+        ReflectionTestUtils.setField(executor, "enabled", true);
+        ReflectionTestUtils.setField(executor, "maxConnections", maxConnections);
+        executor.init();
+        return executor;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testRunsConcurrentlyInOwnTransactions() {
+        CountDownLatch started = new CountDownLatch(2);
+        String result = executor(2).both(
+                () -> {
+                    started.countDown();
+                    return started.await(5, TimeUnit.SECONDS) ? "content" : null;
+                },
+                () -> {
+                    started.countDown();
+                    return started.await(5, TimeUnit.SECONDS) ? 10L : null;
+                },
+                (content, total) -> content + ":" + total);
+        assertEquals("content:10", result);
+        assertEquals(2, transactions.get());
+    }
+
+    @Test
+    void testFailureCancelsOtherQuery() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("count failed");
+        long start = System.nanoTime();
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> executor(2).both(
+                () -> {
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                    return "content";
+                },
+                () -> {
+                    throw failure;
+                },
+                (content, total) -> content));
+        assertSame(failure, thrown);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testConnectionCap() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        String result = executor(1).both(
+                () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    running.decrementAndGet();
+                    return "a";
+                },
+                () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(50);
+                    running.decrementAndGet();
+                    return "b";
+                },
+                String::concat);
+        assertEquals("ab", result);
+        assertEquals(1, maxRunning.get());
+        assertFalse(executor.enabled());
+    }
+
+    @Test
+    void testConnectionCapIsSharedByAllCalls() throws Exception {
+        ParallelQueryExecutor capped = executor(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> query = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } finally {
+                running.decrementAndGet();
+            }
+            return "q";
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = callers.submit(() -> capped.both(query, query, String::concat));
+            while (running.get() < 2) {
+                Thread.sleep(1);
+            }
+            Future<String> second = callers.submit(() -> capped.both(query, query, String::concat));
+            // 第一个调用占满了连接许可，第二个调用的查询等待
+            Thread.sleep(200);
+            assertEquals(2, running.get());
+            release.countDown();
+            assertEquals("qq", first.get(5, TimeUnit.SECONDS));
+            assertEquals("qq", second.get(5, TimeUnit.SECONDS));
+            assertEquals(2, maxRunning.get());
+            assertEquals(4, transactions.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.refout.trace.datasource.handler.routing;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以两个H2内存库分别作为主库和从库
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private ReadWriteRoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnly;
+
+    private TransactionTemplate readWrite;
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static void init(JdbcTemplate jdbcTemplate, String name) {
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        jdbcTemplate.execute("create table replica_lag (seconds bigint)");
+        jdbcTemplate.update("insert into replica_lag values (0)");
+    }
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primaryDataSource = h2("primary");
+        JdbcDataSource replicaDataSource = h2("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        init(primary, "primary");
+        init(replica, "replica");
+
+        routing = new ReadWriteRoutingDataSource(primaryDataSource,
+                List.of(new ReadWriteRoutingDataSource.Replica("replica-0", replicaDataSource)),
+                "select seconds from replica_lag", 5);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteContext.clear();
+        primary.execute("drop all objects");
+        replica.execute("drop all objects");
+    }
+
+    private String node(TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    void testReadOnlyGoesToReplica() {
+        assertEquals("replica", node(readOnly));
+        assertEquals("primary", node(readWrite));
+        assertEquals("primary", jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    void testReadYourWrites() {
+        ReadWriteContext.begin();
+        assertEquals("replica", node(readOnly));
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update replica_lag set seconds = 0"));
+        assertEquals("primary", node(readOnly));
+        ReadWriteContext.clear();
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void testWrittenClearedAfterTransactionOutsideRequest() {
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("update replica_lag set seconds = 0");
+            assertTrue(ReadWriteContext.written());
+        });
+        assertFalse(ReadWriteContext.written());
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        replica.update("update replica_lag set seconds = 60");
+        routing.checkReplicas();
+        assertEquals("primary", node(readOnly));
+
+        replica.update("update replica_lag set seconds = 1");
+        routing.checkReplicas();
+        assertEquals("replica", node(readOnly));
+
+        replica.execute("drop table replica_lag");
+        routing.checkReplicas();
+        assertEquals("primary", node(readOnly));
+    }
+
+}
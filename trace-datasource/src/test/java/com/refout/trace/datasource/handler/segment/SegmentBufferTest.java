@@ -0,0 +1,118 @@
+package com.refout.trace.datasource.handler.segment;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentBufferTest {
+
+    private static final int STEP = 100;
+
+    /**
+     * 模拟数据库的号段分配，每次分配STEP个ID
+     */
+    private static Supplier<Segment> allocator(AtomicLong maxId, AtomicInteger leases) {
+        return () -> {
+            leases.incrementAndGet();
+            long end = maxId.addAndGet(STEP);
+            return new Segment(end - STEP + 1, end);
+        };
+    }
+
+    @Test
+    void testNextIdIsDenseAndMonotonic() {
+        SegmentBuffer buffer = new SegmentBuffer("test", allocator(new AtomicLong(), new AtomicInteger()),
+                0.8, Runnable::run);
+        for (long expected = 1; expected <= STEP * 5; expected++) {
+            assertEquals(expected, buffer.nextId());
+        }
+    }
+
+    @Test
+    void testPrefetchAtThreshold() {
+        AtomicInteger leases = new AtomicInteger();
+        SegmentBuffer buffer = new SegmentBuffer("test", allocator(new AtomicLong(), leases), 0.8, Runnable::run);
+        for (int i = 0; i < STEP * 0.8 - 1; i++) {
+            buffer.nextId();
+        }
+        assertEquals(1, leases.get());
+        buffer.nextId();
+        assertEquals(2, leases.get(), "使用量达到80%时应预取下一个号段");
+        for (int i = 0; i < STEP * 0.2; i++) {
+            buffer.nextId();
+        }
+        assertEquals(2, leases.get(), "同一号段只应预取一次");
+        assertEquals(STEP + 1, buffer.nextId(), "切换到预取的号段");
+    }
+
+    @Test
+    void testPrefetchFailureFallsBackToSyncLoad() {
+        AtomicLong maxId = new AtomicLong();
+        AtomicInteger leases = new AtomicInteger();
+        Supplier<Segment> allocator = allocator(maxId, leases);
+        AtomicInteger calls = new AtomicInteger();
+        Supplier<Segment> flaky = () -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            return allocator.get();
+        };
+        SegmentBuffer buffer = new SegmentBuffer("test", flaky, 0.8, Runnable::run);
+        for (long expected = 1; expected <= STEP * 3; expected++) {
+            assertEquals(expected, buffer.nextId());
+        }
+    }
+
+    @Test
+    void testLoadFailure() {
+        AtomicInteger calls = new AtomicInteger();
+        SegmentBuffer buffer = new SegmentBuffer("test", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("数据库不可用");
+        }, 0.8, Runnable::run);
+        assertThrows(DatasourceException.class, buffer::nextId);
+        assertEquals(3, calls.get(), "同步加载应重试");
+    }
+
+    @Test
+    void testInvalidPrefetchRatio() {
+        assertThrows(IllegalArgumentException.class, () -> new SegmentBuffer("test", () -> null, 0, Runnable::run));
+        assertThrows(IllegalArgumentException.class, () -> new SegmentBuffer("test", () -> null, 1.1, Runnable::run));
+    }
+
+    @Test
+    void testUniqueIdsAcrossThreads() throws InterruptedException {
+        int threads = 16;
+        int idsPerThread = 10_000;
+        ExecutorService prefetch = Executors.newVirtualThreadPerTaskExecutor();
+        SegmentBuffer buffer = new SegmentBuffer("test", allocator(new AtomicLong(), new AtomicInteger()),
+                0.8, prefetch);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids.add(buffer.nextId());
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+        }
+        prefetch.shutdown();
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.refout.trace.datasource.handler.segment;
+
+import com.refout.trace.datasource.enums.SnowflakeMode;
+import com.refout.trace.datasource.handler.snowflake.Snowflake;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 号段ID与Snowflake的JMH基准测试，对比1/8/32/128线程下生成单个ID的吞吐量。
+ * <p>
+ * 号段分配模拟1ms的数据库往返，步长10000，预取比例0.8。
+ * <p>
+ * 运行方式：在IDE中直接运行main方法，或
+ * {@code mvn -pl trace-datasource test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.refout.trace.datasource.handler.segment.SegmentIdBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SegmentIdBenchmark {
+
+    private static final int STEP = 10_000;
+
+    private final AtomicLong maxId = new AtomicLong();
+
+    private ExecutorService prefetch;
+
+    private SegmentBuffer buffer;
+
+    private Snowflake synchronizedSnowflake;
+
+    private Snowflake lockFreeSnowflake;
+
+    @Setup
+    public void setUp() {
+        prefetch = Executors.newVirtualThreadPerTaskExecutor();
+        buffer = new SegmentBuffer("benchmark", () -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            long end = maxId.addAndGet(STEP);
+            return new Segment(end - STEP + 1, end);
+        }, 0.8, prefetch);
+        synchronizedSnowflake = SnowflakeMode.SYNCHRONIZED.create(1, 1);
+        lockFreeSnowflake = SnowflakeMode.LOCK_FREE.create(1, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        prefetch.shutdownNow();
+    }
+
+    @Benchmark
+    public long segment() {
+        return buffer.nextId();
+    }
+
+    @Benchmark
+    public long synchronizedSnowflake() {
+        return synchronizedSnowflake.nextId();
+    }
+
+    @Benchmark
+    public long lockFreeSnowflake() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 32, 128}) {
+            Options options = new OptionsBuilder()
+                    .include(SegmentIdBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+}
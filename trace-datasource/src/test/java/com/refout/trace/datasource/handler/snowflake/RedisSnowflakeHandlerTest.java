@@ -0,0 +1,135 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以嵌入式redis执行租约的分配、续约、释放脚本
+ */
+class RedisSnowflakeHandlerTest {
+
+    private static final String LEASE = "SNOWFLAKE:LEASE";
+
+    private static final String OWNER = "SNOWFLAKE:LEASE:OWNER";
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        Objects.requireNonNull(redisTemplate.getConnectionFactory()).getConnection().serverCommands().flushAll();
+    }
+
+    @Test
+    void acquireDistinctSlotsAndWriteLegacyKeys() {
+        RedisSnowflakeHandler first = handler();
+        RedisSnowflakeHandler second = handler();
+        assertEquals(new RedisSnowflakeHandler.Node(0, 0), first.getNode());
+        assertEquals(new RedisSnowflakeHandler.Node(0, 1), second.getNode());
+        assertEquals(2, redisTemplate.opsForZSet().size(LEASE));
+        // 旧版本节点扫描SNOWFLAKE:NODE:*时能看到新节点持有的槽位
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey("SNOWFLAKE:NODE:0:0"));
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey("SNOWFLAKE:NODE:0:1"));
+        Long ttl = redisTemplate.getExpire("SNOWFLAKE:NODE:0:0");
+        assertTrue(ttl != null && ttl > 0 && ttl <= 600);
+        first.checkLease();
+    }
+
+    @Test
+    void acquireSkipsSlotsHeldByLegacyNodes() {
+        redisTemplate.opsForValue().set("SNOWFLAKE:NODE:0:0", "[0,0]");
+        redisTemplate.opsForValue().set("SNOWFLAKE:NODE:0:1", "[0,1]");
+        assertEquals(new RedisSnowflakeHandler.Node(0, 2), handler().getNode());
+        assertEquals("[0,0]", redisTemplate.opsForValue().get("SNOWFLAKE:NODE:0:0"));
+    }
+
+    @Test
+    void renewKeepsLeaseAndStopsWhenTakenOver() {
+        RedisSnowflakeHandler handler = handler();
+        handler.getNode();
+        Double before = redisTemplate.opsForZSet().score(LEASE, "0");
+        handler.renewLease();
+        handler.checkLease();
+        assertNotNull(before);
+        assertTrue(Objects.requireNonNull(redisTemplate.opsForZSet().score(LEASE, "0")) >= before);
+
+        // 旧版本节点在租约间隙占用了该槽位
+        redisTemplate.opsForValue().set("SNOWFLAKE:NODE:0:0", "[0,0]");
+        handler.renewLease();
+        assertThrows(DatasourceException.class, handler::checkLease);
+    }
+
+    @Test
+    void renewFailsWhenAnotherOwnerHoldsLiveLease() {
+        RedisSnowflakeHandler handler = handler();
+        handler.getNode();
+        redisTemplate.opsForHash().put(OWNER, "0", "other");
+        redisTemplate.opsForZSet().add(LEASE, "0", System.currentTimeMillis() + 60_000);
+        handler.renewLease();
+        assertThrows(DatasourceException.class, handler::checkLease);
+    }
+
+    @Test
+    void releaseFreesSlotAndLegacyKey() {
+        RedisSnowflakeHandler first = handler();
+        first.getNode();
+        first.removeNode();
+        assertEquals(0, redisTemplate.opsForZSet().size(LEASE));
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey("SNOWFLAKE:NODE:0:0"));
+        assertEquals(new RedisSnowflakeHandler.Node(0, 0), handler().getNode());
+    }
+
+    @Test
+    void releaseIgnoresSlotOfAnotherOwner() {
+        RedisSnowflakeHandler first = handler();
+        first.getNode();
+        redisTemplate.opsForHash().put(OWNER, "0", "other");
+        first.removeNode();
+        assertEquals(1, redisTemplate.opsForZSet().size(LEASE));
+        assertEquals(Boolean.TRUE, redisTemplate.hasKey("SNOWFLAKE:NODE:0:0"));
+    }
+
+    private static RedisSnowflakeHandler handler() {
+        RedisSnowflakeHandler handler = new RedisSnowflakeHandler();
+        ReflectionTestUtils.setField(handler, "leaseSecond", 600L);
+        ReflectionTestUtils.setField(handler, "stringRedisTemplate", redisTemplate);
+        return handler;
+    }
+
+}
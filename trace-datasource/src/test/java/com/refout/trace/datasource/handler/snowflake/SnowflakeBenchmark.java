@@ -0,0 +1,64 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.datasource.enums.SnowflakeMode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake生成器的JMH基准测试，对比不同模式在1/8/32/128线程下单个生成和批量预留的吞吐量。
+ * <p>
+ * 运行方式：在IDE中直接运行main方法，或
+ * {@code mvn -pl trace-datasource test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.refout.trace.datasource.handler.snowflake.SnowflakeBenchmark}
+ * <p>
+ * 注意单节点的理论上限为每毫秒4096个ID，线程数增加后吞吐量会被该上限截断，
+ * 此时对比的是等待下一毫秒之前的竞争开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnowflakeBenchmark {
+
+    @Param({"SYNCHRONIZED", "LOCK_FREE", "STRIPED"})
+    private SnowflakeMode mode;
+
+    private Snowflake snowflake;
+
+    @Setup
+    public void setUp() {
+        snowflake = mode.create(1, 1);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return snowflake.nextId();
+    }
+
+    /**
+     * 以Hibernate批量插入的常见批量大小预留ID，吞吐量按ID数量计算
+     */
+    @Benchmark
+    @OperationsPerInvocation(50)
+    public long[] nextIds() {
+        return snowflake.nextIds(50);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 32, 128}) {
+            Options options = new OptionsBuilder()
+                    .include(SnowflakeBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+}
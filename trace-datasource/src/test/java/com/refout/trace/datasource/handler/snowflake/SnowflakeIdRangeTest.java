@@ -0,0 +1,42 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.common.util.DateUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdRangeTest {
+
+    @Test
+    void testIdWithinMillisRange() {
+        Snowflake snowflake = new Snowflake(31, 31);
+        long id = snowflake.nextId();
+        long timestamp = snowflake.getGenerateDateTime(id);
+        assertTrue(Snowflake.minId(timestamp) <= id);
+        assertTrue(id <= Snowflake.maxId(timestamp));
+        assertEquals(timestamp, snowflake.getGenerateDateTime(Snowflake.minId(timestamp)));
+        assertEquals(timestamp, snowflake.getGenerateDateTime(Snowflake.maxId(timestamp)));
+        assertEquals(Snowflake.maxId(timestamp) + 1, Snowflake.minId(timestamp + 1));
+    }
+
+    @Test
+    void testBeforeEpoch() {
+        assertEquals(0, Snowflake.minId(0));
+        assertEquals(-1, Snowflake.maxId(0));
+    }
+
+    @Test
+    void testBoundsCoverCreateTime() {
+        Snowflake snowflake = new Snowflake(1, 1);
+        long id = snowflake.nextId();
+        LocalDateTime createTime = DateUtil.timestampToLocalDateTime(snowflake.getGenerateDateTime(id));
+        // datetime列按秒取整后的创建时间
+        LocalDateTime rounded = createTime.withNano(0).plusSeconds(1);
+        assertTrue(SnowflakeIdRange.lowerBound(rounded) <= id);
+        assertTrue(id <= SnowflakeIdRange.upperBound(createTime.withNano(0)));
+        assertTrue(SnowflakeIdRange.lowerBound(LocalDateTime.now()) >= SnowflakeIdRange.MIN_SNOWFLAKE_ID);
+    }
+
+}
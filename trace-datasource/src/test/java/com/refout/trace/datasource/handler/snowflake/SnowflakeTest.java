@@ -0,0 +1,208 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import com.refout.trace.datasource.enums.SnowflakeMode;
+import com.refout.trace.datasource.exception.DatasourceException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeTest {
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testNextIdIncreasing(SnowflakeMode mode) {
+        Snowflake snowflake = mode.create(3, 7);
+        long last = snowflake.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long id = snowflake.nextId();
+            assertTrue(id > last, "Generated id is not increasing");
+            last = id;
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testNextIdUniqueAcrossThreads(SnowflakeMode mode) throws InterruptedException {
+        Snowflake snowflake = mode.create(1, 2);
+        int threads = 16;
+        int perThread = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(snowflake.nextId());
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(1, TimeUnit.MINUTES));
+        }
+        assertEquals(threads * perThread, ids.size(), "Generated ids are not unique");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testNextIdsSpillIntoLaterMillis(SnowflakeMode mode) {
+        Snowflake snowflake = mode.create(2, 5);
+        long before = snowflake.nextId();
+        long[] ids = snowflake.nextIds(10_000);
+        assertEquals(10_000, ids.length);
+        long last = before;
+        for (long id : ids) {
+            assertTrue(id > last, "Reserved ids are not increasing");
+            last = id;
+        }
+        assertTrue(snowflake.nextId() > last, "Id after reservation overlaps reserved block");
+        assertTrue(snowflake.getGenerateDateTime(ids[ids.length - 1]) > snowflake.getGenerateDateTime(ids[0]),
+                "Reservation larger than one millisecond did not spill into later milliseconds");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testNextIdsUniqueAcrossThreads(SnowflakeMode mode) throws InterruptedException {
+        Snowflake snowflake = mode.create(4, 4);
+        int threads = 8;
+        int batches = 500;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < batches; i++) {
+                        for (long id : snowflake.nextIds(50)) {
+                            ids.add(id);
+                        }
+                        ids.add(snowflake.nextId());
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(1, TimeUnit.MINUTES));
+        }
+        assertEquals(threads * batches * 51, ids.size(), "Reserved ids are not unique");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testNextIdsWithInvalidCount(SnowflakeMode mode) {
+        Snowflake snowflake = mode.create(0, 0);
+        assertThrows(IllegalArgumentException.class, () -> snowflake.nextIds(0));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testGetGenerateDateTime(SnowflakeMode mode) {
+        Snowflake snowflake = mode.create(31, 31);
+        long before = System.currentTimeMillis();
+        long id = snowflake.nextId();
+        long after = System.currentTimeMillis();
+        long time = snowflake.getGenerateDateTime(id);
+        assertTrue(time >= before && time <= after, "Generate time is not within the expected range");
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testClockBackwardsStrict(SnowflakeMode mode) {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        Snowflake snowflake = manualClock(mode, ClockBackwardsPolicy.STRICT, clock, new AtomicLong());
+        snowflake.nextId();
+        clock.addAndGet(-1);
+        assertThrows(DatasourceException.class, snowflake::nextId);
+        assertEquals(1, snowflake.getClockBackwardsCount());
+        assertEquals(1, snowflake.getClockBackwardsFailedCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testClockBackwardsWithinTolerance(SnowflakeMode mode) {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        Snowflake snowflake = manualClock(mode, new ClockBackwardsPolicy(10, 1000), clock, new AtomicLong());
+        long last = snowflake.nextId();
+        clock.addAndGet(-5);
+        for (int i = 0; i < 100; i++) {
+            long id = snowflake.nextId();
+            assertTrue(id > last, "Generated id is not increasing after clock moved backwards");
+            last = id;
+        }
+        long[] ids = snowflake.nextIds(10);
+        assertTrue(ids[0] > last, "Reserved id is not increasing after clock moved backwards");
+        assertEquals(101, snowflake.getClockBackwardsCount());
+        assertEquals(0, snowflake.getClockBackwardsWaitCount());
+        assertEquals(0, snowflake.getClockBackwardsFailedCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testClockBackwardsWait(SnowflakeMode mode) {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        AtomicLong step = new AtomicLong();
+        Snowflake snowflake = manualClock(mode, new ClockBackwardsPolicy(10, 1000), clock, step);
+        long last = snowflake.nextId();
+        clock.addAndGet(-50);
+        step.set(20);
+        assertTrue(snowflake.nextId() > last, "Generated id is not increasing after waiting for the clock");
+        assertEquals(1, snowflake.getClockBackwardsWaitCount());
+        assertTrue(snowflake.getClockBackwardsWaitNanos() > 0, "Wait time is not recorded");
+        assertEquals(0, snowflake.getClockBackwardsFailedCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnowflakeMode.class)
+    void testClockBackwardsBeyondMaxWait(SnowflakeMode mode) {
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        Snowflake snowflake = manualClock(mode, new ClockBackwardsPolicy(10, 1000), clock, new AtomicLong());
+        snowflake.nextId();
+        clock.addAndGet(-2000);
+        assertThrows(DatasourceException.class, snowflake::nextId);
+        assertThrows(DatasourceException.class, () -> snowflake.nextIds(10));
+        assertEquals(2, snowflake.getClockBackwardsFailedCount());
+    }
+
+    /**
+     * 创建使用手动时钟的Snowflake生成器
+     *
+     * @param mode   模式
+     * @param policy 时钟回退处理策略
+     * @param clock  手动时钟
+     * @param step   每次读取时钟后时钟前进的毫秒数
+     * @return Snowflake生成器
+     */
+    private static @NotNull Snowflake manualClock(SnowflakeMode mode, ClockBackwardsPolicy policy,
+                                                  AtomicLong clock, AtomicLong step) {
+        return switch (mode) {
+            case SYNCHRONIZED -> new Snowflake(1, 1, policy) {
+                @Override
+                protected long timeGen() {
+                    return clock.getAndAdd(step.get());
+                }
+            };
+            case LOCK_FREE -> new LockFreeSnowflake(1, 1, policy) {
+                @Override
+                protected long timeGen() {
+                    return clock.getAndAdd(step.get());
+                }
+            };
+            case STRIPED -> new StripedSnowflake(1, 1, policy, StripedSnowflake.DEFAULT_STRIPES,
+                    (datacenterId, workerId, clockBackwardsPolicy, laneBits, lane) ->
+                            new LockFreeSnowflake(datacenterId, workerId, clockBackwardsPolicy, laneBits, lane) {
+                                @Override
+                                protected long timeGen() {
+                                    return clock.getAndAdd(step.get());
+                                }
+                            });
+        };
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.refout.trace.datasource.handler.snowflake;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedSnowflakeTest {
+
+    /**
+     * 常规测试中压力测试生成的ID总数
+     */
+    private static final long QUICK_STRESS_IDS = 2_000_000L;
+
+    /**
+     * 压力测试生成的ID总数，默认1亿个，可通过-Dsnowflake.stress.ids修改
+     */
+    private static final long STRESS_IDS = Long.getLong("snowflake.stress.ids", 100_000_000L);
+
+    @Test
+    void testInvalidStripes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StripedSnowflake(1, 1, ClockBackwardsPolicy.STRICT, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StripedSnowflake(1, 1, ClockBackwardsPolicy.STRICT, StripedSnowflake.MAX_STRIPES * 2));
+    }
+
+    @Test
+    void testLanesDoNotOverlap() throws Exception {
+        StripedSnowflake snowflake = new StripedSnowflake(1, 1, ClockBackwardsPolicy.STRICT, 4);
+        List<Long> lanes = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            // 不同线程ID落在不同分道
+            FutureTask<Long> task = new FutureTask<>(snowflake::nextId);
+            Thread.ofVirtual().start(task).join();
+            lanes.add((task.get() & Snowflake.SEQUENCE_MASK) >>> 10);
+        }
+        assertEquals(4, lanes.stream().distinct().count(), "Ids are not spread across all lanes");
+    }
+
+    @Test
+    void testUniqueUnderStress() throws InterruptedException {
+        assertUniqueUnderStress(QUICK_STRESS_IDS);
+    }
+
+    /**
+     * 1亿个ID的压力测试，默认不运行，使用{@code mvn test -Pstress}运行
+     */
+    @Test
+    @Tag("stress")
+    void testUniqueUnderFullStress() throws InterruptedException {
+        assertUniqueUnderStress(STRESS_IDS);
+    }
+
+    private void assertUniqueUnderStress(long ids) throws InterruptedException {
+        StripedSnowflake snowflake = new StripedSnowflake(1, 1, ClockBackwardsPolicy.STRICT,
+                StripedSnowflake.DEFAULT_STRIPES);
+        int threads = Math.max(StripedSnowflake.DEFAULT_STRIPES, Runtime.getRuntime().availableProcessors());
+        long perThread = ids / threads;
+        // 单节点每毫秒最多4096个ID，按10倍的理论耗时预留位图窗口
+        long windowMillis = Math.max(60_000L, ids / 4096 * 10);
+        long start = System.currentTimeMillis();
+        AtomicLongArray bitmap = new AtomicLongArray((int) (windowMillis * 4096 / 64));
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch latch = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    long last = 0;
+                    for (long i = 0; i < perThread && failures.isEmpty(); i++) {
+                        long id = snowflake.nextId();
+                        if (id <= last) {
+                            failures.add("Ids in one thread are not increasing: " + last + " -> " + id);
+                        }
+                        last = id;
+                        long offset = snowflake.getGenerateDateTime(id) - start;
+                        if (offset < 0 || offset >= windowMillis) {
+                            failures.add("Id " + id + " is out of the bitmap window");
+                            break;
+                        }
+                        long bit = offset * 4096 + (id & Snowflake.SEQUENCE_MASK);
+                        long mask = 1L << (bit & 63);
+                        if ((bitmap.getAndUpdate((int) (bit >>> 6), word -> word | mask) & mask) != 0) {
+                            failures.add("Duplicate id: " + id);
+                        }
+                    }
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(30, TimeUnit.MINUTES));
+        }
+        assertTrue(failures.isEmpty(), () -> String.join("\n", failures));
+    }
+
+}
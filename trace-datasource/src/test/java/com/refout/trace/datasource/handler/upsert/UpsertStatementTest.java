@@ -0,0 +1,43 @@
+package com.refout.trace.datasource.handler.upsert;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpsertStatementTest {
+
+    private static final List<String> COLUMNS = List.of("name", "app", "value", "create_time", "update_time", "deleted");
+
+    @Test
+    void testUpdateColumnsAndRevivesDeletedRows() {
+        UpsertStatement statement = new UpsertStatement("ts_config", "id", COLUMNS, Set.of("name", "app"),
+                Set.of("value", "update_time"), "deleted");
+        assertEquals("insert into ts_config (id, name, app, value, create_time, update_time, deleted) values "
+                        + "(?, ?, ?, ?, ?, ?, ?), (?, ?, ?, ?, ?, ?, ?) on duplicate key update "
+                        + "value = values(value), "
+                        + "create_time = case when deleted <> 0 then values(create_time) else create_time end, "
+                        + "update_time = values(update_time), "
+                        + "deleted = values(deleted)",
+                statement.sql(2));
+    }
+
+    @Test
+    void testIgnoreWhenNothingToAssign() {
+        UpsertStatement statement = new UpsertStatement("ts_config", "id", List.of("name", "app", "value"),
+                Set.of("name", "app"), Set.of(), null);
+        assertEquals("insert into ts_config (id, name, app, value) values (?, ?, ?, ?) "
+                + "on duplicate key update id = id", statement.sql(1));
+    }
+
+    @Test
+    void testMaxRowsWithinParameterLimit() {
+        UpsertStatement statement = new UpsertStatement("ts_config", "id", COLUMNS, Set.of("name", "app"),
+                Set.of(), "deleted");
+        assertEquals(500, statement.maxRows(500));
+        assertEquals(UpsertStatement.MAX_PARAMETERS / 7, statement.maxRows(100_000));
+    }
+
+}
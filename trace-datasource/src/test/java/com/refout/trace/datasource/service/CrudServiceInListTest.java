@@ -0,0 +1,98 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.domain.query.QueryRequest;
+import com.refout.trace.datasource.domain.query.condition.In;
+import com.refout.trace.datasource.domain.query.page.OrderBy;
+import com.refout.trace.datasource.domain.query.page.PageIn;
+import com.refout.trace.datasource.domain.query.page.PageOut;
+import com.refout.trace.datasource.handler.in.InTempTableFunctionContributor;
+import jakarta.annotation.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = CrudServiceTestApplication.class)
+class CrudServiceInListTest {
+
+    private static final String TABLE = InTempTableFunctionContributor.table(0);
+
+    @Resource
+    private TestItemService testItemService;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from tt_item");
+        List<TestItem> items = IntStream.range(0, 1500).mapToObj(i -> new TestItem().setName("item" + i)).toList();
+        ids = testItemService.saveAll(items).stream().map(TestItem::getId).sorted().toList();
+        SqlRecorder.clear();
+    }
+
+    private static PageIn<TestItem, QueryRequest<TestItem>> pageIn(String column, List<Object> values) {
+        In in = new In();
+        in.setColumnName(column);
+        in.setIn(values);
+        QueryRequest<TestItem> query = new QueryRequest<>();
+        query.setData(new TestItem());
+        query.setIns(List.of(in));
+        return new PageIn<>(1, 10, List.of(new OrderBy(Sort.Direction.ASC, "id")), query);
+    }
+
+    @Test
+    void testGetPageLoadsTempTableForDataAndCount() {
+        List<Object> values = new ArrayList<>(ids.subList(0, 1100));
+        // 不存在的ID和重复的值
+        LongStream.rangeClosed(1, 50).forEach(i -> values.add(-i));
+        values.add(values.getFirst());
+
+        PageOut<?> page = testItemService.getPage(pageIn("id", values));
+
+        assertEquals(1100, page.total());
+        assertEquals(ids.subList(0, 10), page.data().stream().map(it -> ((TestItem) it).getId()).toList());
+
+        List<String> sql = SqlRecorder.sql();
+        long loads = sql.stream().filter(it -> it.startsWith("create") && it.contains("temporary table " + TABLE)).count();
+        assertEquals(2, loads, "数据和总数查询各写入一次临时表");
+        assertEquals(4, sql.stream().filter(it -> it.startsWith("insert into " + TABLE)).count(),
+                "去重后1150个值，每次写入分两条插入语句");
+        List<String> queries = sql.stream()
+                .filter(it -> it.startsWith("select") && it.contains("(select v from " + TABLE + ")")).toList();
+        assertEquals(2, queries.size());
+        assertTrue(queries.stream().anyMatch(it -> it.contains("count(")), "总数查询使用同名临时表：" + queries);
+    }
+
+    @Test
+    void testGetPageLoadsStringTempTable() {
+        List<Object> names = new ArrayList<>(IntStream.range(0, 1200).<Object>mapToObj(i -> "item" + i).toList());
+
+        PageOut<?> page = testItemService.getPage(pageIn("name", names));
+
+        assertEquals(1200, page.total());
+        assertTrue(SqlRecorder.sql().stream().anyMatch(it -> it.contains("temporary table " + TABLE + " (v varchar(")));
+    }
+
+    @Test
+    void testGetPageFallsBackToPaddedForLongStrings() {
+        List<Object> names = new ArrayList<>(IntStream.range(0, 1100).<Object>mapToObj(i -> "item" + i).toList());
+        names.add("x".repeat(2000));
+
+        PageOut<?> page = testItemService.getPage(pageIn("name", names));
+
+        assertEquals(1100, page.total());
+        assertTrue(SqlRecorder.sql().stream().noneMatch(it -> it.contains(TABLE)), "超长字符串不写入临时表");
+    }
+
+}
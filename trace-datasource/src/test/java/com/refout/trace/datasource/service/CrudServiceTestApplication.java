@@ -0,0 +1,81 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.common.util.SpringUtil;
+import com.refout.trace.datasource.handler.cache.SecondLevelCacheEvictHandler;
+import com.refout.trace.datasource.handler.in.InListPredicateBuilder;
+import com.refout.trace.datasource.handler.page.ParallelQueryExecutor;
+import com.refout.trace.datasource.handler.snowflake.RedisSnowflakeHandler;
+import com.refout.trace.datasource.handler.snowflake.Snowflake;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * CrudService测试的H2（MySQL模式）上下文，redis相关的Bean以mock代替
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {RedisAutoConfiguration.class, RedisRepositoriesAutoConfiguration.class})
+@EnableJpaAuditing
+@Import({SpringUtil.class, InListPredicateBuilder.class, ParallelQueryExecutor.class,
+        SecondLevelCacheEvictHandler.class, TestItemService.class, TestLogService.class})
+class CrudServiceTestApplication {
+
+    static final String AUDITOR = "tester";
+
+    @Bean
+    RedisSnowflakeHandler redisSnowflakeHandler() {
+        // 主键生成器在SessionFactory创建时实例化，需要在此之前返回Snowflake
+        RedisSnowflakeHandler handler = mock(RedisSnowflakeHandler.class);
+        when(handler.getSnowflake()).thenReturn(new Snowflake(1, 1));
+        return handler;
+    }
+
+    @Bean
+    ConversionService conversionService() {
+        // Web应用中由Spring MVC提供，ConvertUtil依赖
+        return ApplicationConversionService.getSharedInstance();
+    }
+
+    @Bean
+    StringRedisTemplate stringRedisTemplate() {
+        return mock(StringRedisTemplate.class);
+    }
+
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer() {
+        return mock(RedisMessageListenerContainer.class);
+    }
+
+    @Bean
+    AuditorAware<String> auditorAware() {
+        return () -> Optional.of(AUDITOR);
+    }
+
+    @Bean
+    static BeanPostProcessor sqlRecorderPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public @NotNull Object postProcessAfterInitialization(@NotNull Object bean, @NotNull String beanName) {
+                return bean instanceof DataSource dataSource ? SqlRecorder.wrap(dataSource) : bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.domain.query.QueryRequest;
+import com.refout.trace.datasource.exception.DatasourceException;
+import com.refout.trace.datasource.handler.cache.SecondLevelCacheEvictHandler;
+import com.refout.trace.datasource.handler.count.CountCache;
+import jakarta.annotation.Resource;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = CrudServiceTestApplication.class)
+class CrudServiceWriteTest {
+
+    @Resource
+    private TestItemService testItemService;
+
+    @Resource
+    private TestLogService testLogService;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from tt_item");
+        jdbcTemplate.update("delete from tt_log");
+    }
+
+    private static List<TestItem> items(int size) {
+        return IntStream.range(0, size).mapToObj(i -> new TestItem().setName("item" + i).setAmount(i)).toList();
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    @Test
+    void testSaveAllInChunks() {
+        int size = CrudService.SAVE_CHUNK_SIZE * 2 + 100;
+        transactionTemplate.executeWithoutResult(status -> {
+            List<TestItem> saved = testItemService.saveAll(items(size));
+
+            assertEquals(size, saved.size());
+            assertTrue(saved.stream().allMatch(it -> it.getId() != null));
+            assertFalse(entityManager.contains(saved.getFirst()), "分块保存后实体是游离的");
+            assertEquals(0, entityManager.unwrap(SessionImplementor.class).getPersistenceContext()
+                    .getNumberOfManagedEntities(), "持久化上下文不随数据量增长");
+            assertEquals(size, count("tt_item"), "每块保存后已flush");
+        });
+        assertEquals(size, count("tt_item"));
+        assertEquals(CrudServiceTestApplication.AUDITOR,
+                jdbcTemplate.queryForObject("select max(create_by) from tt_item", String.class));
+    }
+
+    @Test
+    void testSaveAllKeepsCallerEntitiesManaged() {
+        Long id = testItemService.save(new TestItem().setName("before")).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            TestItem managed = entityManager.find(TestItem.class, id);
+            testItemService.saveAll(items(CrudService.SAVE_CHUNK_SIZE + 1));
+
+            assertTrue(entityManager.contains(managed), "调用方事务中的托管实体不受影响");
+            // 保存之后的修改仍然在提交时写入
+            managed.setName("after");
+        });
+
+        assertEquals("after", jdbcTemplate.queryForObject("select name from tt_item where id = ?", String.class, id));
+    }
+
+    @Test
+    void testSoftDeleteInChunks() {
+        List<Long> ids = testItemService.saveAll(items(CrudService.DELETE_CHUNK_SIZE * 2 + 100)).stream()
+                .map(TestItem::getId).toList();
+        Long kept = testItemService.save(new TestItem().setName("kept")).getId();
+        SqlRecorder.clear();
+
+        testItemService.deleteAllById(ids);
+
+        assertEquals(3, SqlRecorder.sql().stream().filter(it -> it.startsWith("update tt_item")).count(),
+                "每块一条update语句");
+        assertEquals(ids.size() + 1, count("tt_item"), "逻辑删除不删除行");
+        assertEquals(ids.size(), jdbcTemplate.queryForObject(
+                "select count(*) from tt_item where deleted = 1 and update_by = ? and update_time is not null",
+                Long.class, CrudServiceTestApplication.AUDITOR));
+        assertEquals(List.of(kept), testItemService.repository().findAll().stream().map(TestItem::getId).toList(),
+                "已删除的数据查询不到");
+    }
+
+    @Test
+    void testPhysicalDeleteWithoutRestriction() {
+        List<Long> ids = IntStream.range(0, 3)
+                .mapToObj(i -> testLogService.save(new TestLog().setMessage("log" + i)).getId())
+                .toList();
+
+        testLogService.deleteAllById(List.of(ids.get(0), ids.get(1), ids.get(0)));
+
+        assertEquals(1, count("tt_log"));
+        assertEquals(List.of(ids.get(2)), jdbcTemplate.queryForList("select id from tt_log", Long.class));
+    }
+
+    @Test
+    void testPatchConvertsFieldsAndEvictsCaches() {
+        Long id = testItemService.save(new TestItem().setName("before").setAmount(1)).getId();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(TestItem.class, id));
+        assertTrue(cache.contains(TestItem.class, id));
+        String countKey = CountCache.key(TestItem.class, "patch");
+        CountCache.put(countKey, 100);
+        clearInvocations(stringRedisTemplate);
+
+        testItemService.patch(id, Map.of("name", "after", "amount", "5"));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("select name, amount, update_by from tt_item where id = ?", id);
+        assertEquals("after", row.get("name"));
+        assertEquals(5, row.get("amount"), "字段值按字段类型转换");
+        assertEquals(CrudServiceTestApplication.AUDITOR, row.get("update_by"));
+        assertFalse(cache.contains(TestItem.class, id), "清除该ID的二级缓存");
+        assertEquals(1, CountCache.get(countKey, () -> 1), "清除实体类的总数缓存");
+        verify(stringRedisTemplate).convertAndSend(eq(SecondLevelCacheEvictHandler.CHANNEL),
+                contains(String.valueOf(id)));
+    }
+
+    @Test
+    void testPatchRejectsInvalidFields() {
+        Long id = testItemService.save(new TestItem().setName("item")).getId();
+
+        assertThrows(DatasourceException.class, () -> testItemService.patch(id, Map.of("missing", 1)), "字段不存在");
+        assertThrows(DatasourceException.class, () -> testItemService.patch(id, Map.of("createBy", "x")), "审计字段");
+        assertThrows(DatasourceException.class, () -> testItemService.patch(id, Map.of("deleted", true)), "逻辑删除字段");
+        assertThrows(DatasourceException.class, () -> testItemService.patch(id, Map.of("amount", "abc")), "值无法转换");
+        assertThrows(DatasourceException.class, () -> testItemService.patch(-1L, Map.of("name", "x")), "数据不存在");
+
+        testItemService.deleteById(id);
+        assertThrows(DatasourceException.class, () -> testItemService.patch(id, Map.of("name", "x")), "已删除的数据");
+        assertEquals("item", jdbcTemplate.queryForObject("select name from tt_item where id = ?", String.class, id));
+    }
+
+    @Test
+    void testStreamClearsPersistenceContextPeriodically() {
+        int size = CrudService.STREAM_FETCH_SIZE * 2 + 500;
+        List<Long> ids = testItemService.saveAll(items(size)).stream().map(TestItem::getId).sorted().toList();
+        QueryRequest<TestItem> condition = new QueryRequest<>();
+        condition.setData(new TestItem());
+
+        List<Long> read = new ArrayList<>(size);
+        int[] maxManaged = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            var context = entityManager.unwrap(SessionImplementor.class).getPersistenceContext();
+            try (Stream<TestItem> stream = testItemService.stream(condition)) {
+                stream.forEach(item -> {
+                    read.add(item.getId());
+                    maxManaged[0] = Math.max(maxManaged[0], context.getNumberOfManagedEntities());
+                });
+            }
+        });
+
+        assertEquals(ids, read, "按ID顺序读取全部数据");
+        assertTrue(maxManaged[0] <= CrudService.STREAM_FETCH_SIZE, "每批清空一次持久化上下文：" + maxManaged[0]);
+    }
+
+    @Test
+    void testUpsertAllUpdatesRevivesAndInserts() {
+        TestItem existing = testItemService.save(new TestItem().setName("existing").setAmount(1));
+        TestItem deleted = testItemService.save(new TestItem().setName("deleted").setAmount(1));
+        testItemService.deleteById(deleted.getId());
+        LocalDateTime createTime = jdbcTemplate.queryForObject(
+                "select create_time from tt_item where id = ?", LocalDateTime.class, existing.getId());
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        transactionTemplate.executeWithoutResult(status -> entityManager.find(TestItem.class, existing.getId()));
+        assertTrue(cache.contains(TestItem.class, existing.getId()));
+
+        List<TestItem> rows = new ArrayList<>(items(CrudService.SAVE_CHUNK_SIZE + 1));
+        rows.add(new TestItem().setName("existing").setAmount(2));
+        rows.add(new TestItem().setName("deleted").setAmount(3));
+        SqlRecorder.clear();
+        testItemService.upsertAll(rows, List.of("name"));
+
+        assertEquals(2, SqlRecorder.sql().stream().filter(it -> it.startsWith("insert into tt_item")).count(),
+                "每块一条语句");
+        assertEquals(CrudService.SAVE_CHUNK_SIZE + 3, count("tt_item"));
+        Map<String, Object> updated = jdbcTemplate.queryForMap(
+                "select id, amount, create_time from tt_item where name = 'existing'");
+        assertEquals(existing.getId(), updated.get("id"));
+        assertEquals(2, updated.get("amount"));
+        assertEquals(createTime, ((Timestamp) updated.get("create_time")).toLocalDateTime(),
+                "未删除的行保留创建时间");
+        Map<String, Object> revived = jdbcTemplate.queryForMap(
+                "select amount, deleted, create_time from tt_item where name = 'deleted'");
+        assertEquals(3, revived.get("amount"));
+        assertEquals(0, revived.get("deleted"), "已逻辑删除的行视为不存在");
+        assertEquals(CrudService.SAVE_CHUNK_SIZE + 3, jdbcTemplate.queryForObject(
+                "select count(*) from tt_item where deleted = 0 and create_by = ?", Long.class,
+                CrudServiceTestApplication.AUDITOR), "新行自动填充创建人");
+        assertFalse(cache.contains(TestItem.class, existing.getId()), "清除实体类的二级缓存");
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.refout.trace.datasource.service;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录经过数据源执行的SQL，包括Hibernate生成的语句和{@code Session.doWork}中直接执行的语句
+ */
+final class SqlRecorder {
+
+    private static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+    private SqlRecorder() {
+    }
+
+    static void clear() {
+        SQL.clear();
+    }
+
+    static @NotNull List<String> sql() {
+        return List.copyOf(SQL);
+    }
+
+    static @NotNull DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource);
+    }
+
+    private static <T> @NotNull T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(SqlRecorder.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (args != null && args.length > 0 && args[0] instanceof String sql && records(method)) {
+                        SQL.add(sql.toLowerCase());
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                        return proxy(Connection.class, connection);
+                    }
+                    if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                        return proxy(Statement.class, statement);
+                    }
+                    return result;
+                }));
+    }
+
+    private static boolean records(@NotNull Method method) {
+        String name = method.getName();
+        return name.startsWith("prepare") || name.startsWith("execute") || name.equals("addBatch");
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.domain.AbstractEntity;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
+
+/**
+ * 逻辑删除、开启二级缓存的测试实体
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "tt_item", uniqueConstraints = @UniqueConstraint(name = "tt_item_uk", columnNames = "name"))
+@SQLRestriction("deleted = 0")
+public class TestItem extends AbstractEntity {
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "amount")
+    private Integer amount;
+
+}
@@ -0,0 +1,18 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.repository.BaseRepository;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+
+@Service
+class TestItemService implements CrudService<TestItem, Long> {
+
+    @Resource
+    private TestItemRepository testItemRepository;
+
+    @Override
+    public BaseRepository<TestItem, Long> repository() {
+        return testItemRepository;
+    }
+
+}
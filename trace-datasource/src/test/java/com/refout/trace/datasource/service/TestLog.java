@@ -0,0 +1,24 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.domain.AbstractEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * 没有{@code @SQLRestriction}、物理删除的测试实体
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+@Entity
+@Table(name = "tt_log")
+public class TestLog extends AbstractEntity {
+
+    @Column(name = "message")
+    private String message;
+
+}
@@ -0,0 +1,7 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.repository.BaseRepository;
+
+interface TestLogRepository extends BaseRepository<TestLog, Long> {
+
+}
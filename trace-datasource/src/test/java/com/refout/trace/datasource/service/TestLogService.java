@@ -0,0 +1,18 @@
+package com.refout.trace.datasource.service;
+
+import com.refout.trace.datasource.repository.BaseRepository;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+
+@Service
+class TestLogService implements CrudService<TestLog, Long> {
+
+    @Resource
+    private TestLogRepository testLogRepository;
+
+    @Override
+    public BaseRepository<TestLog, Long> repository() {
+        return testLogRepository;
+    }
+
+}
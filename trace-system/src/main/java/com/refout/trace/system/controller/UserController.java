@@ -1,13 +1,25 @@
 package com.refout.trace.system.controller;
 
+import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.common.system.domain.User;
 import com.refout.trace.common.system.service.UserService;
+import com.refout.trace.common.web.cache.AuthenticatedNearCache;
 import com.refout.trace.common.web.controller.CrudController;
+import com.refout.trace.common.web.stateless.StatelessAuthenticator;
 import com.refout.trace.datasource.service.CrudService;
 import jakarta.annotation.Resource;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * 用户控制器类，用于处理用户相关的请求。
  * <p>
@@ -21,9 +33,26 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/user")
 public class UserController implements CrudController<User, Long> {
 
+    /**
+     * 用户的状态字段
+     */
+    private static final String STATE = "state";
+
     @Resource
     private UserService userService;
 
+    /**
+     * 无状态认证
+     */
+    @Resource
+    private StatelessAuthenticator statelessAuthenticator;
+
+    /**
+     * 登录信息的近缓存
+     */
+    @Resource
+    private AuthenticatedNearCache authenticatedNearCache;
+
     /**
      * 数据库查询service
      *
@@ -34,4 +63,75 @@ public class UserController implements CrudController<User, Long> {
         return userService;
     }
 
+    /**
+     * 修改用户，库中状态实际发生变化时撤销该用户的登录
+     *
+     * @param user 用户
+     * @return 修改后的用户
+     */
+    @PutMapping
+    @Override
+    public User edit(@RequestBody User user) {
+        StateEnum before = user.getId() == null ? null : userService.getState(user.getId());
+        User saved = CrudController.super.edit(user);
+        if (user.getId() != null && !Objects.equals(before, saved.getState())) {
+            invalidate(List.of(saved.getId()));
+        }
+        return saved;
+    }
+
+    /**
+     * 修改用户的部分字段，库中状态实际发生变化时撤销该用户的登录
+     *
+     * @param id     用户ID
+     * @param fields 字段名到新值的Map
+     */
+    @PatchMapping("/{id}")
+    @Override
+    public void patch(@PathVariable Long id, @RequestBody Map<String, Object> fields) {
+        if (!fields.containsKey(STATE)) {
+            CrudController.super.patch(id, fields);
+            return;
+        }
+        StateEnum before = userService.getState(id);
+        CrudController.super.patch(id, fields);
+        if (!Objects.equals(before, userService.getState(id))) {
+            invalidate(List.of(id));
+        }
+    }
+
+    /**
+     * 删除用户，并撤销该用户的登录
+     *
+     * @param id 用户ID
+     */
+    @DeleteMapping("/{id}")
+    @Override
+    public void delete(@PathVariable Long id) {
+        CrudController.super.delete(id);
+        invalidate(List.of(id));
+    }
+
+    /**
+     * 批量删除用户，并撤销这些用户的登录
+     *
+     * @param ids 用户ID列表
+     */
+    @DeleteMapping("/all/{ids}")
+    @Override
+    public void delete(@PathVariable List<Long> ids) {
+        CrudController.super.delete(ids);
+        invalidate(ids);
+    }
+
+    /**
+     * 撤销用户的无状态token，并失效这些用户登录信息的近缓存
+     *
+     * @param ids 用户ID列表
+     */
+    private void invalidate(List<Long> ids) {
+        statelessAuthenticator.revokeUsers(ids);
+        authenticatedNearCache.invalidateUsers(ids);
+    }
+
 }
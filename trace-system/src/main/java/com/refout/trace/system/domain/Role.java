@@ -3,12 +3,16 @@ package com.refout.trace.system.domain;
 
 import com.refout.trace.common.enums.StateEnum;
 import com.refout.trace.datasource.domain.AbstractEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 
 /**
  * 角色信息
@@ -22,6 +26,9 @@ import lombok.experimental.Accessors;
 @Accessors(chain = true)
 @Table(name = "ts_role")
 @Entity
+@SQLRestriction("deleted = 0")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role extends AbstractEntity {
 
     /**
@@ -1,5 +1,7 @@
 package com.refout.trace.system.service.impl;
 
+import com.refout.trace.common.web.cache.AuthenticatedNearCache;
+import com.refout.trace.common.web.stateless.PermissionTable;
 import com.refout.trace.datasource.repository.BaseRepository;
 import com.refout.trace.system.domain.Role;
 import com.refout.trace.system.repository.RoleRepository;
@@ -7,12 +9,27 @@ import com.refout.trace.system.service.RoleService;
 import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class RoleServiceImpl implements RoleService {
 
     @Resource
     private RoleRepository roleRepository;
 
+    /**
+     * 本地的角色权限表
+     */
+    @Resource
+    private PermissionTable permissionTable;
+
+    /**
+     * 登录信息的近缓存
+     */
+    @Resource
+    private AuthenticatedNearCache authenticatedNearCache;
+
     /**
      * 获取对应实体类的Repository
      *
@@ -23,4 +40,43 @@ public class RoleServiceImpl implements RoleService {
         return roleRepository;
     }
 
+    /**
+     * 保存角色，递增权限版本并失效登录信息的近缓存
+     *
+     * @param role 角色
+     * @return 保存后的角色
+     */
+    @Override
+    public Role save(Role role) {
+        Role saved = RoleService.super.save(role);
+        permissionTable.changed();
+        authenticatedNearCache.invalidateAll();
+        return saved;
+    }
+
+    /**
+     * 部分更新角色，递增权限版本并失效登录信息的近缓存
+     *
+     * @param id     角色ID
+     * @param fields 更新的字段
+     */
+    @Override
+    public void patch(Long id, Map<String, Object> fields) {
+        RoleService.super.patch(id, fields);
+        permissionTable.changed();
+        authenticatedNearCache.invalidateAll();
+    }
+
+    /**
+     * 删除角色，递增权限版本并失效登录信息的近缓存
+     *
+     * @param ids 角色ID
+     */
+    @Override
+    public void deleteAllById(List<Long> ids) {
+        RoleService.super.deleteAllById(ids);
+        permissionTable.changed();
+        authenticatedNearCache.invalidateAll();
+    }
+
 }
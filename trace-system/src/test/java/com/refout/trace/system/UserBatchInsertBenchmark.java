@@ -0,0 +1,78 @@
+package com.refout.trace.system;
+
+import com.refout.trace.common.system.domain.User;
+import com.refout.trace.common.system.service.UserService;
+import com.refout.trace.common.web.context.AuthenticatedContextHolder;
+import com.refout.trace.common.web.domain.Authenticated;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 批量插入基准测试，向本地数据库插入10万条用户数据并输出每秒插入行数。
+ * <p>
+ * 需要application.yml中配置的MySQL和Redis，默认不执行，运行方式：
+ * {@code mvn -pl trace-system -am test -Dtest=UserBatchInsertBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * -Dtrace.benchmark.db=true}
+ */
+@Slf4j
+@SpringBootTest
+@EnabledIfSystemProperty(named = "trace.benchmark.db", matches = "true")
+class UserBatchInsertBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private static final String PREFIX = "bench";
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        User operator = new User().setUsername("benchmark");
+        AuthenticatedContextHolder.setContext(new Authenticated(null, operator, Set.of(), null, null, null, null, null));
+        cleanUp();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from ts_user where username like ?", PREFIX + "%");
+    }
+
+    @Test
+    void saveAll() {
+        List<User> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(new User()
+                    .setUsername(PREFIX + i)
+                    .setPassword("benchmark")
+                    .setNickname(PREFIX + i)
+                    .setPhone(String.valueOf(19_000_000_000L + i))
+                    .setGender("2"));
+        }
+
+        long start = System.nanoTime();
+        userService.saveAll(users);
+        long nanos = System.nanoTime() - start;
+
+        Long count = jdbcTemplate.queryForObject(
+                "select count(*) from ts_user where username like ?", Long.class, PREFIX + "%");
+        assertEquals(ROWS, count);
+        log.info("批量插入{}条用户数据耗时{}ms，{}行/秒", ROWS, nanos / 1_000_000, ROWS * 1_000_000_000L / nanos);
+    }
+
+}